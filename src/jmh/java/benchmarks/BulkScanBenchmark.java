@@ -0,0 +1,147 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import items.CompactInventory;
+import items.Inventory;
+import items.Item;
+import items.ItemCatalog;
+import items.ItemStack;
+import items.SlotCursor;
+
+
+/**
+ * Bulk scans (sum, low-stock filter, multi-id membership) over a
+ * CompactInventory compared with the same scans over an Inventory's
+ * ItemStacks--and the same sum through each primitive iteration API
+ * (forEachSlot and SlotCursor).
+ * <p>
+ * *fill* is the number of slots in use.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BulkScanBenchmark
+{
+    /**
+     * Quantities below this are "low stock".
+     */
+    private static final int LOW_STOCK = 5;
+
+    @Param({"10", "1000", "100000"})
+    public int fill;
+
+    private CompactInventory compact;
+
+    private Inventory inventory;
+
+    /**
+     * Ids none of which is stored (so membership scans every slot).
+     */
+    private int[] absentIds;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        List<Item> items = new ArrayList<>();
+        for (int id = 0; id < this.fill; ++id) {
+            items.add(new Item(id, "Item " + id));
+        }
+
+        this.compact   = new CompactInventory(new ItemCatalog(items), this.fill);
+        this.inventory = new Inventory(this.fill);
+
+        Random random = new Random(this.fill);
+        for (Item item : items) {
+            final int qty = 1 + random.nextInt(64);
+
+            this.compact.addItems(item.getID(), qty);
+            this.inventory.addItems(new ItemStack(item, qty));
+        }
+
+        this.absentIds = new int[] {-1, -2, -3, -4};
+    }
+
+    @Benchmark
+    public long sumCompact()
+    {
+        return this.compact.totalQuantity();
+    }
+
+    @Benchmark
+    public long sumItemStacks()
+    {
+        long total = 0;
+        for (ItemStack stack : this.inventory) {
+            total += stack.size();
+        }
+
+        return total;
+    }
+
+    @Benchmark
+    public long sumForEachSlot()
+    {
+        long[] total = new long[1];
+        this.inventory.forEachSlot((id, qty) -> total[0] += qty);
+
+        return total[0];
+    }
+
+    @Benchmark
+    public long sumCursor()
+    {
+        long total = 0;
+        SlotCursor cursor = this.inventory.cursor();
+
+        while (cursor.next()) {
+            total += cursor.quantity();
+        }
+
+        return total;
+    }
+
+    @Benchmark
+    public int[] lowStockCompact()
+    {
+        return this.compact.slotsBelow(LOW_STOCK);
+    }
+
+    @Benchmark
+    public List<ItemStack> lowStockItemStacks()
+    {
+        List<ItemStack> low = new ArrayList<>();
+        for (ItemStack stack : this.inventory) {
+            if (stack.size() < LOW_STOCK) {
+                low.add(stack);
+            }
+        }
+
+        return low;
+    }
+
+    @Benchmark
+    public boolean containsAnyCompact()
+    {
+        return this.compact.containsAny(this.absentIds);
+    }
+}
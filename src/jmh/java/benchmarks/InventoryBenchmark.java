@@ -0,0 +1,153 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import items.Item;
+import items.ItemStack;
+import items.Inventory;
+
+
+/**
+ * Benchmarks for the Inventory and ItemStack hot paths.
+ * <p>
+ * *fill* is the number of slots already in use before each operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class InventoryBenchmark
+{
+    @Param({"10", "1000", "100000"})
+    public int fill;
+
+    /**
+     * Inventory with *fill* used slots and room for more.
+     */
+    private Inventory partial;
+
+    /**
+     * Inventory where every slot is used.
+     */
+    private Inventory full;
+
+    /**
+     * Stack whose Item is already in both Inventories.
+     */
+    private ItemStack present;
+
+    /**
+     * Stack whose Item is in neither Inventory.
+     */
+    private ItemStack absent;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        this.partial = new Inventory(2 * this.fill);
+        this.full    = new Inventory(this.fill);
+
+        for (int id = 0; id < this.fill; ++id) {
+            Item item = new Item(id, "Item " + id);
+
+            this.partial.addItems(new ItemStack(item, 1));
+            this.full.addItems(new ItemStack(item, 1));
+        }
+
+        this.present = new ItemStack(new Item(this.fill / 2, "Item"), 1);
+        this.absent  = new ItemStack(new Item(-1, "Missing"), 1);
+    }
+
+    /**
+     * Copy of *partial* (with unlimited capacity) that new slots are added
+     * to. It is rebuilt every iteration so that it does not grow without
+     * bound; within an iteration each invocation adds a never-seen id.
+     */
+    @State(Scope.Thread)
+    public static class Scratch
+    {
+        Inventory inv;
+        Item newItem;
+        int nextId;
+
+        @Setup(Level.Iteration)
+        public void setUp(InventoryBenchmark outer)
+        {
+            this.inv     = new Inventory(Integer.MAX_VALUE);
+            this.newItem = new Item(0, "New");
+            this.nextId  = outer.fill;
+
+            for (ItemStack stack : outer.partial) {
+                this.inv.addItemStackNoCheck(stack.clone());
+            }
+        }
+    }
+
+    @Benchmark
+    public ItemStack findHit()
+    {
+        return this.partial.findMatchingItemStack(this.present);
+    }
+
+    @Benchmark
+    public ItemStack findMiss()
+    {
+        return this.partial.findMatchingItemStack(this.absent);
+    }
+
+    /**
+     * The stack is merged into an existing slot.
+     */
+    @Benchmark
+    public boolean addItemsMerge()
+    {
+        return this.partial.addItems(this.present);
+    }
+
+    /**
+     * The stack is placed in a new slot.
+     */
+    @Benchmark
+    public boolean addItemsNewSlot(Scratch scratch)
+    {
+        scratch.newItem.setID(scratch.nextId++);
+
+        return scratch.inv.addItems(new ItemStack(scratch.newItem, 1));
+    }
+
+    /**
+     * The stack is discarded because every slot is used.
+     */
+    @Benchmark
+    public boolean addItemsDiscard()
+    {
+        return this.full.addItems(this.absent);
+    }
+
+    @Benchmark
+    public Inventory cloneInventory()
+    {
+        return this.full.clone();
+    }
+
+    @Benchmark
+    public String toStringInventory()
+    {
+        return this.full.toString();
+    }
+}
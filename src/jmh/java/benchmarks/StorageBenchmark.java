@@ -0,0 +1,210 @@
+package benchmarks;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import items.Item;
+import items.Inventory;
+import items.ItemCatalog;
+
+
+/**
+ * Benchmarks for parsing itemList and inventoryList input.
+ * <p>
+ * Storage (and its loaders) live in the default package, which can not be
+ * imported. JMH refuses default-package benchmarks, so the static parse
+ * functions are reached through constant MethodHandles instead.
+ * <p>
+ * *catalogSize* is the number of Items in the synthetic itemList;
+ * *inventoryCount* is the number of `#` blocks in the synthetic
+ * inventoryList (each with up to 16 slots and 32 lines).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StorageBenchmark
+{
+    private static final MethodHandle PARSE_ITEM_LIST;
+    private static final MethodHandle STREAM_INVENTORIES;
+    private static final MethodHandle MAPPED_STREAM_INVENTORIES;
+    private static final MethodHandle PARALLEL_STREAM_INVENTORIES;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> storage = Class.forName("Storage");
+            Class<?> loader  = Class.forName("MappedLoader");
+
+            PARSE_ITEM_LIST = lookup.findStatic(
+                storage, "parseItemList",
+                MethodType.methodType(List.class, BufferedReader.class)
+            );
+
+            STREAM_INVENTORIES = lookup.findStatic(
+                storage, "streamInventories",
+                MethodType.methodType(
+                    void.class, BufferedReader.class, ItemCatalog.class,
+                    Consumer.class, Consumer.class
+                )
+            );
+
+            MethodType pathType = MethodType.methodType(
+                void.class, Path.class, ItemCatalog.class,
+                Consumer.class, Consumer.class
+            );
+            MAPPED_STREAM_INVENTORIES = lookup.findStatic(
+                loader, "streamInventories", pathType
+            );
+            PARALLEL_STREAM_INVENTORIES = lookup.findStatic(
+                loader, "parallelStreamInventories", pathType
+            );
+        }
+        catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @Param({"1000", "200000"})
+    public int catalogSize;
+
+    @Param({"1000", "100000"})
+    public int inventoryCount;
+
+    private String itemText;
+    private String inventoryText;
+    private Path inventoryFile;
+    private ItemCatalog catalog;
+
+    @Setup(Level.Trial)
+    public void setUp()
+        throws Throwable
+    {
+        Random random = new Random(330);
+
+        //----------------------------------------------------------------------
+        // itemList
+        //----------------------------------------------------------------------
+        StringBuilder items = new StringBuilder();
+        for (int id = 0; id < this.catalogSize; ++id) {
+            items.append(id).append(" Item Number ").append(id).append('\n');
+        }
+        this.itemText = items.toString();
+
+        //----------------------------------------------------------------------
+        // inventoryList (about 5% unknown ids)
+        //----------------------------------------------------------------------
+        StringBuilder inventories = new StringBuilder();
+        for (int i = 0; i < this.inventoryCount; ++i) {
+            inventories.append("# ").append(1 + random.nextInt(16)).append('\n');
+
+            final int lines = random.nextInt(32);
+            for (int j = 0; j < lines; ++j) {
+                final int id = random.nextInt(this.catalogSize + this.catalogSize / 20);
+
+                inventories.append("- ")
+                    .append(id)
+                    .append(' ')
+                    .append(1 + random.nextInt(64))
+                    .append('\n');
+            }
+        }
+        this.inventoryText = inventories.toString();
+
+        this.inventoryFile = Files.createTempFile("inventoryList-", ".txt");
+        Files.write(this.inventoryFile, this.inventoryText.getBytes(StandardCharsets.US_ASCII));
+
+        @SuppressWarnings("unchecked")
+        List<Item> knownItems = (List<Item>) this.parseItemList();
+        this.catalog = new ItemCatalog(knownItems);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+        throws IOException
+    {
+        Files.deleteIfExists(this.inventoryFile);
+    }
+
+    @Benchmark
+    public Object parseItemList()
+        throws Throwable
+    {
+        return (List<?>) PARSE_ITEM_LIST.invokeExact(
+            new BufferedReader(new StringReader(this.itemText))
+        );
+    }
+
+    @Benchmark
+    public void parseInventories(Blackhole bh)
+        throws Throwable
+    {
+        Consumer<String> logSink = bh::consume;
+        Consumer<Inventory> inventorySink = bh::consume;
+
+        STREAM_INVENTORIES.invokeExact(
+            new BufferedReader(new StringReader(this.inventoryText)),
+            this.catalog,
+            logSink,
+            inventorySink
+        );
+    }
+
+    @Benchmark
+    public void parseInventoriesMapped(Blackhole bh)
+        throws Throwable
+    {
+        Consumer<String> logSink = bh::consume;
+        Consumer<Inventory> inventorySink = bh::consume;
+
+        MAPPED_STREAM_INVENTORIES.invokeExact(
+            this.inventoryFile,
+            this.catalog,
+            logSink,
+            inventorySink
+        );
+    }
+
+    @Benchmark
+    public void parseInventoriesParallel(Blackhole bh)
+        throws Throwable
+    {
+        Consumer<String> logSink = bh::consume;
+        Consumer<Inventory> inventorySink = bh::consume;
+
+        PARALLEL_STREAM_INVENTORIES.invokeExact(
+            this.inventoryFile,
+            this.catalog,
+            logSink,
+            inventorySink
+        );
+    }
+}
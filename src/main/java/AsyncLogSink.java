@@ -0,0 +1,323 @@
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+
+/**
+ * An AsyncLogSink hands entries to a background thread, which formats them
+ * (with LogRecordEncoder) and writes them to an Appendable in large
+ * batches. The thread that produces entries never formats or writes.
+ * <p>
+ * Entries are kept in a bounded ring buffer. If the buffer is full, *entry*
+ * waits until the background thread has made room, so memory use is
+ * bounded no matter how far the writer falls behind.
+ * <p>
+ * Only one thread may call *entry*, *flush* and *close*.
+ */
+public class AsyncLogSink implements LogSink
+{
+    /**
+     * Default number of entries the ring buffer holds.
+     */
+    public static final int DEFAULT_CAPACITY = 1 << 14;
+
+    /**
+     * Formatted text is written once it reaches this many characters.
+     */
+    private static final int WRITE_THRESHOLD = 1 << 16;
+
+    /**
+     * Longest time (in nanoseconds) either thread waits before re-checking
+     * the buffer.
+     */
+    private static final long MAX_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * Number of busy-wait iterations before a waiting thread parks.
+     */
+    private static final int SPIN_LIMIT = 100;
+
+    //--------------------------------------------------------------------------
+    // Ring buffer--one slot per entry, stored as parallel arrays
+    //--------------------------------------------------------------------------
+    private final boolean[] storedFlags;
+    private final int[] quantities;
+    private final String[] names;
+
+    /**
+     * Ring buffer length - 1 (the length is a power of two).
+     */
+    private final int mask;
+
+    /**
+     * Sequence number of the next entry to be written by the producer.
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * Sequence number of the next entry to be read by the writer thread.
+     */
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * Every entry before this sequence number has been appended to *out*.
+     */
+    private final AtomicLong written = new AtomicLong();
+
+    /**
+     * Set by the writer thread just before it parks.
+     */
+    private volatile boolean writerParked;
+
+    /**
+     * Set once *close* is called.
+     */
+    private volatile boolean closed;
+
+    /**
+     * First error raised by the writer thread.
+     */
+    private volatile IOException failure;
+
+    /**
+     * Destination of all formatted entries.
+     */
+    private final Appendable out;
+
+    /**
+     * Background thread that formats and writes entries.
+     */
+    private final Thread writer;
+
+    /**
+     * Create a sink with the default capacity.
+     *
+     * @param out destination of all formatted entries (e.g., System.out or
+     *     a BufferedWriter)
+     */
+    public AsyncLogSink(Appendable out)
+    {
+        this(out, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create a sink.
+     *
+     * @param out destination of all formatted entries
+     * @param capacity number of entries the ring buffer holds (rounded up
+     *     to a power of two)
+     */
+    public AsyncLogSink(Appendable out, int capacity)
+    {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+
+        final int length = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+
+        this.storedFlags = new boolean[length];
+        this.quantities  = new int[length];
+        this.names       = new String[length];
+        this.mask        = length - 1;
+        this.out         = out;
+
+        this.writer = new Thread(this::drainLoop, "AsyncLogSink-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public void entry(boolean stored, int quantity, String name)
+    {
+        this.checkUsable();
+
+        final long seq = this.tail.get();
+
+        // Wait for room
+        int spins = 0;
+        while (seq - this.head.get() > this.mask) {
+            this.checkUsable();
+            spins = pause(spins);
+        }
+
+        final int idx = (int) seq & this.mask;
+        this.storedFlags[idx] = stored;
+        this.quantities[idx]  = quantity;
+        this.names[idx]       = name;
+
+        // Publish the entry (the volatile write orders the array writes)
+        this.tail.set(seq + 1);
+
+        if (this.writerParked) {
+            LockSupport.unpark(this.writer);
+        }
+    }
+
+    /**
+     * Block until every entry so far has been written, then flush the
+     * destination (if it is Flushable).
+     */
+    @Override
+    public void flush()
+        throws IOException
+    {
+        final long target = this.tail.get();
+
+        LockSupport.unpark(this.writer);
+
+        int spins = 0;
+        while (this.written.get() < target) {
+            this.checkFailure();
+
+            if (!this.writer.isAlive()) {
+                throw new IOException("Log writer thread stopped");
+            }
+
+            spins = pause(spins);
+        }
+
+        this.checkFailure();
+
+        // The writer thread is idle until the next entry arrives
+        if (this.out instanceof Flushable) {
+            ((Flushable) this.out).flush();
+        }
+    }
+
+    /**
+     * Write every remaining entry and stop the background thread. The
+     * destination is flushed, but not closed.
+     */
+    @Override
+    public void close()
+        throws IOException
+    {
+        if (this.closed) {
+            return;
+        }
+
+        try {
+            this.flush();
+        }
+        finally {
+            this.closed = true;
+            LockSupport.unpark(this.writer);
+
+            try {
+                this.writer.join();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Body of the writer thread.
+     */
+    private void drainLoop()
+    {
+        StringBuilder batch = new StringBuilder(WRITE_THRESHOLD + 256);
+
+        try {
+            while (true) {
+                final long from = this.head.get();
+                final long to = this.tail.get();
+
+                //--------------------------------------------------------------
+                // Nothing to do--write what is formatted, then wait
+                //--------------------------------------------------------------
+                if (from == to) {
+                    if (batch.length() > 0) {
+                        this.out.append(batch);
+                        batch.setLength(0);
+                    }
+
+                    this.written.set(to);
+
+                    if (this.closed) {
+                        return;
+                    }
+
+                    this.writerParked = true;
+                    if (this.tail.get() == to && !this.closed) {
+                        LockSupport.parkNanos(this, MAX_WAIT_NANOS);
+                    }
+                    this.writerParked = false;
+
+                    continue;
+                }
+
+                //--------------------------------------------------------------
+                // Format everything available
+                //--------------------------------------------------------------
+                for (long seq = from; seq < to; ++seq) {
+                    final int idx = (int) seq & this.mask;
+
+                    LogRecordEncoder.appendEntry(
+                        batch, this.storedFlags[idx], this.quantities[idx], this.names[idx]
+                    );
+                    this.names[idx] = null;
+
+                    if (batch.length() >= WRITE_THRESHOLD) {
+                        this.head.set(seq + 1);
+                        this.out.append(batch);
+                        batch.setLength(0);
+                    }
+                }
+
+                this.head.set(to);
+            }
+        }
+        catch (IOException e) {
+            this.failure = e;
+        }
+        catch (RuntimeException e) {
+            this.failure = new IOException(e);
+        }
+    }
+
+    /**
+     * Busy-wait briefly, then park.
+     *
+     * @return updated spin count
+     */
+    private static int pause(int spins)
+    {
+        if (spins < SPIN_LIMIT) {
+            Thread.onSpinWait();
+            return spins + 1;
+        }
+
+        LockSupport.parkNanos(MAX_WAIT_NANOS);
+        return spins;
+    }
+
+    /**
+     * Reject entries once the sink is closed or has failed.
+     */
+    private void checkUsable()
+    {
+        if (this.closed) {
+            throw new IllegalStateException("Log sink is closed");
+        }
+
+        if (this.failure != null) {
+            throw new UncheckedIOException(this.failure);
+        }
+    }
+
+    /**
+     * Throw the writer thread's error (if any).
+     */
+    private void checkFailure()
+        throws IOException
+    {
+        if (this.failure != null) {
+            throw this.failure;
+        }
+    }
+}
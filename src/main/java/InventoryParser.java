@@ -0,0 +1,219 @@
+import java.util.List;
+import java.util.ArrayList;
+import java.util.function.Consumer;
+
+import items.Item;
+import items.ItemStack;
+import items.Inventory;
+import items.ItemCatalog;
+import items.Metrics;
+
+
+/**
+ * An InventoryParser builds Inventories from inventoryList lines--one line
+ * at a time. It does not care where the lines come from (a Reader, a
+ * memory-mapped file, ...).
+ * <p>
+ * Call *acceptLine* for every line and *finish* once the input is
+ * exhausted.
+ * <p>
+ * ItemStacks are collected and added in batches of up to MAX_BATCH_SIZE
+ * (and whenever an Inventory is complete); the Stored/Discarded entries
+ * of each batch are then handed off in line order. At most one batch is
+ * retained, however large an Inventory is.
+ * <p>
+ * Item lines that precede the first `#` line belong to no Inventory and
+ * are ignored.
+ */
+public class InventoryParser
+{
+    /**
+     * Maximum number of stacks added (and logged) as one batch.
+     */
+    public static final int MAX_BATCH_SIZE = 64;
+
+    /**
+     * Catalog of valid Item entries.
+     */
+    private ItemCatalog items;
+
+    /**
+     * Receives each Stored/Discarded entry.
+     */
+    private LogSink logSink;
+
+    /**
+     * Receives each Inventory once it is complete.
+     */
+    private Consumer<Inventory> inventorySink;
+
+    /**
+     * Tokenizer reused for every line.
+     */
+    private LineTokenizer tokens;
+
+    /**
+     * Inventory currently being built.
+     */
+    private Inventory inv;
+
+    /**
+     * Stacks read for *inv* that have not yet been added.
+     */
+    private List<ItemStack> pendingStacks;
+
+    /**
+     * Quantity of each pending stack--captured before the batch is added,
+     * since adding may merge later stacks into earlier ones.
+     */
+    private int[] pendingQuantities;
+
+    /**
+     * Create a parser that hands off each log entry as formatted text.
+     *
+     * @param items catalog of valid Item entries
+     * @param logSink receives each Stored/Discarded entry (including the
+     *     line separator) once its batch has been added
+     * @param inventorySink receives each Inventory once it is complete
+     *     (i.e., when the next `#` line or the end of input is reached)
+     */
+    public InventoryParser(
+        ItemCatalog items,
+        Consumer<String> logSink,
+        Consumer<Inventory> inventorySink
+    )
+    {
+        this(items, LogSink.of(logSink), inventorySink);
+    }
+
+    /**
+     * Create a parser.
+     *
+     * @param items catalog of valid Item entries
+     * @param logSink receives each Stored/Discarded entry once its batch
+     *     has been added
+     * @param inventorySink receives each Inventory once it is complete
+     *     (i.e., when the next `#` line or the end of input is reached)
+     */
+    public InventoryParser(
+        ItemCatalog items,
+        LogSink logSink,
+        Consumer<Inventory> inventorySink
+    )
+    {
+        this.items             = items;
+        this.logSink           = logSink;
+        this.inventorySink     = inventorySink;
+        this.tokens            = new LineTokenizer();
+        this.inv               = null;
+        this.pendingStacks     = new ArrayList<>(MAX_BATCH_SIZE);
+        this.pendingQuantities = new int[MAX_BATCH_SIZE];
+    }
+
+    /**
+     * Process one complete line.
+     *
+     * @param line characters of the line (excluding the line terminator)
+     */
+    public void acceptLine(CharSequence line)
+    {
+        this.acceptLine(line, 0, line.length());
+    }
+
+    /**
+     * Process one complete line stored within a larger buffer.
+     *
+     * @param buffer characters containing the line
+     * @param from index of the first character of the line
+     * @param to index one past the last character of the line
+     */
+    public void acceptLine(CharSequence buffer, int from, int to)
+    {
+        Metrics.LINES_PARSED.increment();
+
+        this.tokens.reset(buffer, from, to);
+
+        // Ignore blank lines
+        if (this.tokens.isBlank()) {
+            return;
+        }
+
+        final char leadingChar = this.tokens.leadingChar();
+        this.tokens.skipToken();
+
+        //----------------------------------------------------------------------
+        // Start a new Inventory
+        //----------------------------------------------------------------------
+        if (leadingChar == '#') {
+            if (this.inv != null) {
+                this.flush();
+                this.inventorySink.accept(this.inv);
+                Metrics.INVENTORIES_PARSED.increment();
+            }
+
+            final int size = this.tokens.nextInt();
+            this.inv = new Inventory(size);
+
+            return;
+        }
+
+        //----------------------------------------------------------------------
+        // Read and process an Item Line
+        //----------------------------------------------------------------------
+        // Ignore any Item Line that precedes the first Inventory
+        if (this.inv == null) {
+            return;
+        }
+
+        final int itemId = this.tokens.nextInt();
+        Item match = this.items.find(itemId);
+
+        // Ignore any Item id not found in items
+        if (match == null) {
+            Metrics.UNKNOWN_IDS.increment();
+            return;
+        }
+
+        final int quantity = this.tokens.nextInt();
+        // Catalog Items are immutable--the stack shares *match*
+        ItemStack stack = new ItemStack(match, quantity);
+
+        this.pendingQuantities[this.pendingStacks.size()] = quantity;
+        this.pendingStacks.add(stack);
+
+        if (this.pendingStacks.size() == MAX_BATCH_SIZE) {
+            this.flush();
+        }
+    }
+
+    /**
+     * Record the last (final) inventory.
+     */
+    public void finish()
+    {
+        if (this.inv != null) {
+            this.flush();
+            this.inventorySink.accept(this.inv);
+            Metrics.INVENTORIES_PARSED.increment();
+            this.inv = null;
+        }
+    }
+
+    /**
+     * Add all pending stacks to *inv* and log the outcome of each.
+     */
+    private void flush()
+    {
+        final long start = Metrics.startTimer();
+        final boolean[] stored = this.inv.addItems(this.pendingStacks);
+        Metrics.BATCH_ADD_TIME.recordSince(start);
+
+        for (int i = 0; i < stored.length; ++i) {
+            this.logSink.entry(
+                stored[i], this.pendingQuantities[i], this.pendingStacks.get(i).getItem().getName()
+            );
+        }
+
+        this.pendingStacks.clear();
+    }
+}
@@ -0,0 +1,314 @@
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Collections;
+
+import items.Item;
+import items.ItemStack;
+import items.Inventory;
+import items.InventorySnapshot;
+
+
+/**
+ * A list of Inventories whose mutations are recorded in a MutationJournal,
+ * so that they survive a crash without rewriting every Inventory after
+ * each change.
+ * <p>
+ * Mutations are appended to the journal and then applied in memory (so a
+ * failed append changes nothing); *commit* makes them durable. Readers get
+ * immutable snapshots--the Inventories themselves are never exposed, so
+ * every change goes through the journal. *checkpoint* saves a binary snapshot (see
+ * SnapshotCodec) and empties the journal. *recover* loads the last snapshot
+ * and replays the journal on top of it.
+ * <p>
+ * A checkpoint writes the snapshot to a temporary file, then appends a
+ * checkpoint record, then renames the temporary file (and syncs the
+ * directory) before emptying the journal. If a crash occurs between the
+ * two, recovery finishes the rename; the records before the checkpoint
+ * record are never replayed twice.
+ * <p>
+ * Mutating methods are synchronized. *commit* is not, so any number of
+ * threads can wait for (and share) the same journal write.
+ */
+public class JournaledInventories implements AutoCloseable
+{
+    /**
+     * All Inventories.
+     */
+    private final List<Inventory> inventories;
+
+    /**
+     * Destination of every mutation.
+     */
+    private final MutationJournal journal;
+
+    /**
+     * Last complete snapshot.
+     */
+    private final Path snapshotFile;
+
+    /**
+     * Snapshot being written by a checkpoint.
+     */
+    private final Path pendingSnapshotFile;
+
+    /**
+     * Applies replayed records (after the last checkpoint) to a list of
+     * Inventories.
+     */
+    private static class Replayer implements MutationJournal.RecordHandler
+    {
+        final List<Inventory> inventories;
+        final int checkpointsToSkip;
+        int checkpointsSeen;
+
+        Replayer(List<Inventory> inventories, int checkpointsToSkip)
+        {
+            this.inventories       = inventories;
+            this.checkpointsToSkip = checkpointsToSkip;
+            this.checkpointsSeen   = 0;
+        }
+
+        @Override
+        public void newInventory(int capacity)
+        {
+            if (this.checkpointsSeen == this.checkpointsToSkip) {
+                this.inventories.add(new Inventory(capacity));
+            }
+        }
+
+        @Override
+        public void addItems(int inventory, Item item, int quantity)
+            throws IOException
+        {
+            if (this.checkpointsSeen < this.checkpointsToSkip) {
+                return;
+            }
+
+            if (inventory < 0 || inventory >= this.inventories.size()) {
+                throw new IOException("Journal refers to unknown inventory " + inventory);
+            }
+
+            this.inventories.get(inventory).addItems(new ItemStack(item, quantity));
+        }
+
+        @Override
+        public void checkpoint()
+        {
+            ++this.checkpointsSeen;
+        }
+    }
+
+    private JournaledInventories(
+        List<Inventory> inventories,
+        MutationJournal journal,
+        Path snapshotFile,
+        Path pendingSnapshotFile
+    )
+    {
+        this.inventories         = inventories;
+        this.journal             = journal;
+        this.snapshotFile        = snapshotFile;
+        this.pendingSnapshotFile = pendingSnapshotFile;
+    }
+
+    /**
+     * Rebuild the Inventories from the last snapshot and journal (either or
+     * both of which may be missing) and open the journal for new mutations.
+     *
+     * @param snapshotFile snapshot written by *checkpoint*
+     * @param journalFile journal of mutations since the snapshot
+     *
+     * @throws IOException if either file can not be read or is invalid
+     */
+    public static JournaledInventories recover(Path snapshotFile, Path journalFile)
+        throws IOException
+    {
+        final Path pendingSnapshotFile = snapshotFile.resolveSibling(
+            snapshotFile.getFileName() + ".tmp"
+        );
+
+        //----------------------------------------------------------------------
+        // Count checkpoint records--the snapshot covers everything before
+        // the last one
+        //----------------------------------------------------------------------
+        Replayer counter = new Replayer(new ArrayList<>(), Integer.MAX_VALUE);
+
+        if (Files.exists(journalFile)) {
+            MutationJournal.replay(journalFile, counter);
+        }
+
+        //----------------------------------------------------------------------
+        // Finish (or abandon) an interrupted checkpoint
+        //----------------------------------------------------------------------
+        if (Files.exists(pendingSnapshotFile)) {
+            if (counter.checkpointsSeen > 0) {
+                Files.move(
+                    pendingSnapshotFile,
+                    snapshotFile,
+                    StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING
+                );
+                syncDirectory(snapshotFile);
+            }
+            else {
+                Files.delete(pendingSnapshotFile);
+            }
+        }
+
+        //----------------------------------------------------------------------
+        // Load the snapshot and replay everything after the last checkpoint
+        //----------------------------------------------------------------------
+        List<Inventory> inventories = Files.exists(snapshotFile)
+            ? new ArrayList<>(SnapshotCodec.load(snapshotFile))
+            : new ArrayList<>();
+
+        MutationJournal journal = MutationJournal.open(
+            journalFile, new Replayer(inventories, counter.checkpointsSeen)
+        );
+
+        JournaledInventories result = new JournaledInventories(
+            inventories, journal, snapshotFile, pendingSnapshotFile
+        );
+
+        // A checkpoint record must never outlive its checkpoint--otherwise a
+        // later, interrupted checkpoint would look complete
+        if (counter.checkpointsSeen > 0) {
+            result.checkpoint();
+        }
+
+        return result;
+    }
+
+    /**
+     * Retrieve an immutable snapshot of every Inventory. Unchanged
+     * Inventories reuse their previous snapshot.
+     */
+    public synchronized List<InventorySnapshot> inventories()
+    {
+        List<InventorySnapshot> snapshots = new ArrayList<>(this.inventories.size());
+
+        for (Inventory inv : this.inventories) {
+            snapshots.add(inv.publishSnapshot());
+        }
+
+        return Collections.unmodifiableList(snapshots);
+    }
+
+    /**
+     * Append a new (empty) Inventory.
+     *
+     * @param capacity size of the new Inventory
+     *
+     * @return position of the new Inventory
+     */
+    public synchronized int newInventory(int capacity)
+        throws IOException
+    {
+        this.journal.appendNewInventory(capacity);
+        this.inventories.add(new Inventory(capacity));
+
+        return this.inventories.size() - 1;
+    }
+
+    /**
+     * Add a stack to an Inventory. Only stored stacks are journaled--a
+     * discarded stack does not change anything.
+     *
+     * @param inventory position of the Inventory
+     * @param stack new stack of items to add
+     *
+     * @return true if *stack* was added and false otherwise
+     */
+    public synchronized boolean addItems(int inventory, ItemStack stack)
+        throws IOException
+    {
+        final Inventory target = this.inventories.get(inventory);
+
+        if (!target.accepts(stack)) {
+            return false;
+        }
+
+        // Journal first--if the append fails, the Inventory is unchanged
+        this.journal.appendAddItems(inventory, stack);
+
+        // Store a copy--the caller's stack must not reach the Inventory
+        return target.addItems(stack.clone());
+    }
+
+    /**
+     * Block until every mutation made so far is durable.
+     */
+    public void commit()
+        throws IOException
+    {
+        this.journal.sync();
+    }
+
+    /**
+     * Save a snapshot of every Inventory and empty the journal.
+     */
+    public synchronized void checkpoint()
+        throws IOException
+    {
+        this.journal.sync();
+
+        try (FileChannel channel = FileChannel.open(
+                this.pendingSnapshotFile,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING
+            )) {
+            SnapshotCodec.write(channel, this.inventories);
+            channel.force(true);
+        }
+
+        this.journal.sync(this.journal.appendCheckpoint());
+
+        Files.move(
+            this.pendingSnapshotFile,
+            this.snapshotFile,
+            StandardCopyOption.ATOMIC_MOVE,
+            StandardCopyOption.REPLACE_EXISTING
+        );
+
+        // The rename must be durable before the journal is emptied--
+        // otherwise a crash could keep the truncation but lose the rename
+        syncDirectory(this.snapshotFile);
+
+        this.journal.reset();
+    }
+
+    /**
+     * Make the directory entries (e.g., a rename) of a file's parent
+     * directory durable.
+     *
+     * @param file file whose directory is synced
+     *
+     * @throws IOException if the directory can not be opened or synced
+     */
+    private static void syncDirectory(Path file)
+        throws IOException
+    {
+        final Path directory = file.toAbsolutePath().getParent();
+
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Commit any remaining mutations and close the journal.
+     */
+    @Override
+    public void close()
+        throws IOException
+    {
+        this.journal.close();
+    }
+}
@@ -0,0 +1,193 @@
+import items.Item;
+
+/**
+ * A hand-written tokenizer for itemList and inventoryList lines. Tokens are
+ * read directly from the line--no String arrays, substrings (other than
+ * Item names), or regular expressions are created.
+ * <p>
+ * A single LineTokenizer is meant to be reused for every line of a file.
+ */
+public class LineTokenizer
+{
+    /**
+     * Line currently being tokenized.
+     */
+    private CharSequence line;
+
+    /**
+     * Index of the next unread character in *line*.
+     */
+    private int pos;
+
+    /**
+     * Index one past the last character of *line*.
+     */
+    private int end;
+
+    /**
+     * Create a tokenizer with no line.
+     */
+    public LineTokenizer()
+    {
+        this.reset("");
+    }
+
+    /**
+     * Start tokenizing a new line.
+     *
+     * @param nextLine characters to tokenize (excluding the line terminator)
+     *
+     * @return this tokenizer
+     */
+    public LineTokenizer reset(CharSequence nextLine)
+    {
+        return this.reset(nextLine, 0, nextLine.length());
+    }
+
+    /**
+     * Start tokenizing a portion of a buffer.
+     *
+     * @param buffer characters to tokenize
+     * @param from index of the first character of the line
+     * @param to index one past the last character of the line
+     *
+     * @return this tokenizer
+     */
+    public LineTokenizer reset(CharSequence buffer, int from, int to)
+    {
+        this.line = buffer;
+        this.pos  = from;
+        this.end  = to;
+
+        return this;
+    }
+
+    /**
+     * Determine whether the line contains only whitespace.
+     */
+    public boolean isBlank()
+    {
+        for (int i = this.pos; i < this.end; ++i) {
+            if (!isWhitespace(this.line.charAt(i))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Retrieve the first character of the line without consuming it.
+     */
+    public char leadingChar()
+    {
+        return this.line.charAt(this.pos);
+    }
+
+    /**
+     * Skip over the next whitespace-delimited token.
+     */
+    public void skipToken()
+    {
+        this.skipWhitespace();
+
+        while (this.pos < this.end && !isWhitespace(this.line.charAt(this.pos))) {
+            ++this.pos;
+        }
+    }
+
+    /**
+     * Read the next whitespace-delimited token as an int.
+     *
+     * @return parsed value
+     *
+     * @throws NumberFormatException if the token is missing or not an int
+     */
+    public int nextInt()
+    {
+        this.skipWhitespace();
+
+        final int start = this.pos;
+        while (this.pos < this.end && !isWhitespace(this.line.charAt(this.pos))) {
+            ++this.pos;
+        }
+
+        return Integer.parseInt(this.line, start, this.pos, 10);
+    }
+
+    /**
+     * Parse an itemList line of the form `id name...`. The id is separated
+     * from the name by exactly one space; the name is everything after that
+     * space, excluding trailing spaces.
+     *
+     * @param itemLine line to parse
+     *
+     * @return new Item or `null` if the line does not contain both an id and
+     *     a name
+     *
+     * @throws NumberFormatException if the id is not an int
+     */
+    public Item parseItem(CharSequence itemLine)
+    {
+        return this.parseItem(itemLine, 0, itemLine.length());
+    }
+
+    /**
+     * Parse an itemList line stored within a larger buffer.
+     *
+     * @param buffer characters containing the line
+     * @param from index of the first character of the line
+     * @param to index one past the last character of the line
+     *
+     * @return new Item or `null` if the line does not contain both an id and
+     *     a name
+     *
+     * @throws NumberFormatException if the id is not an int
+     */
+    public Item parseItem(CharSequence buffer, int from, int to)
+    {
+        this.reset(buffer, from, to);
+
+        int space = this.pos;
+        while (space < this.end && this.line.charAt(space) != ' ') {
+            ++space;
+        }
+
+        int nameEnd = this.end;
+        while (nameEnd > space && this.line.charAt(nameEnd - 1) == ' ') {
+            --nameEnd;
+        }
+
+        if (nameEnd <= space + 1) {
+            return null;
+        }
+
+        final int id = Integer.parseInt(this.line, this.pos, space, 10);
+        final String name = this.line.subSequence(space + 1, nameEnd).toString();
+
+        this.pos = this.end;
+
+        return new Item(id, name);
+    }
+
+    /**
+     * Advance past any whitespace.
+     */
+    private void skipWhitespace()
+    {
+        while (this.pos < this.end && isWhitespace(this.line.charAt(this.pos))) {
+            ++this.pos;
+        }
+    }
+
+    /**
+     * Match the same characters as the regex `\s`.
+     *
+     * @param c character to check
+     */
+    private static boolean isWhitespace(char c)
+    {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B'
+            || c == '\f' || c == '\r';
+    }
+}
@@ -0,0 +1,99 @@
+import java.io.IOException;
+
+import items.ReportRenderer;
+
+
+/**
+ * Format Processing Log entries without String.format.
+ * <p>
+ * Each entry is exactly what
+ * <pre>
+ *   String.format(" Stored    (%2d) %s%n", quantity, name)
+ *   String.format(" Discarded (%2d) %s%n", quantity, name)
+ * </pre>
+ * would produce, but is appended piece by piece to an existing buffer (using
+ * ReportRenderer for the stack itself)--no format string is parsed and no
+ * intermediate Strings are created.
+ */
+public final class LogRecordEncoder
+{
+    /**
+     * Start of a Stored entry.
+     */
+    private static final String STORED_PREFIX = " Stored    ";
+
+    /**
+     * Start of a Discarded entry.
+     */
+    private static final String DISCARDED_PREFIX = " Discarded ";
+
+    /**
+     * Parentheses and space around the quantity.
+     */
+    private static final int QUANTITY_DECORATION_LENGTH = "() ".length();
+
+    /**
+     * Platform line separator (i.e., what `%n` produces).
+     */
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    /**
+     * Length of every entry other than the quantity and the name.
+     */
+    private static final int FIXED_LENGTH =
+        STORED_PREFIX.length() + QUANTITY_DECORATION_LENGTH + LINE_SEPARATOR.length();
+
+    private LogRecordEncoder()
+    {
+    }
+
+    /**
+     * Append one entry to a StringBuilder.
+     *
+     * @param out destination
+     * @param stored true for a Stored entry and false for a Discarded entry
+     * @param quantity size of the stack
+     * @param name name of the stack's Item
+     */
+    public static void appendEntry(StringBuilder out, boolean stored, int quantity, String name)
+    {
+        out.append(stored ? STORED_PREFIX : DISCARDED_PREFIX);
+        ReportRenderer.appendItemStack(out, quantity, name);
+        out.append(LINE_SEPARATOR);
+    }
+
+    /**
+     * Append one entry to any Appendable.
+     *
+     * @param out destination
+     * @param stored true for a Stored entry and false for a Discarded entry
+     * @param quantity size of the stack
+     * @param name name of the stack's Item
+     *
+     * @throws IOException if *out* can not be written
+     */
+    public static void appendEntry(Appendable out, boolean stored, int quantity, String name)
+        throws IOException
+    {
+        if (out instanceof StringBuilder) {
+            appendEntry((StringBuilder) out, stored, quantity, name);
+            return;
+        }
+
+        StringBuilder text = new StringBuilder(estimateLength(name));
+        appendEntry(text, stored, quantity, name);
+
+        out.append(text);
+    }
+
+    /**
+     * Estimate the length of an entry (exact for quantities of up to
+     * two digits).
+     *
+     * @param name name of the stack's Item
+     */
+    public static int estimateLength(String name)
+    {
+        return FIXED_LENGTH + 2 + String.valueOf(name).length();
+    }
+}
@@ -0,0 +1,97 @@
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+
+/**
+ * A LogSink receives the Stored/Discarded entries of the Processing Log.
+ * <p>
+ * Entries are handed over as raw values (not formatted text), so a sink
+ * can decide when--and on which thread--formatting happens.
+ */
+public interface LogSink extends AutoCloseable
+{
+    /**
+     * Receive one entry.
+     *
+     * @param stored true if the stack was stored and false if it was
+     *     discarded
+     * @param quantity size of the stack (when it was read)
+     * @param name name of the stack's Item
+     *
+     * @throws UncheckedIOException if the entry can not be written
+     */
+    void entry(boolean stored, int quantity, String name);
+
+    /**
+     * Write out any buffered entries.
+     *
+     * @throws IOException if the entries can not be written
+     */
+    default void flush()
+        throws IOException
+    {
+        // Nothing is buffered by default
+    }
+
+    /**
+     * Write out any buffered entries and release any resources. The
+     * underlying destination is not closed.
+     *
+     * @throws IOException if the entries can not be written
+     */
+    @Override
+    default void close()
+        throws IOException
+    {
+        this.flush();
+    }
+
+    /**
+     * Create a sink that formats each entry and hands it to *consumer* as
+     * a String (including the line separator).
+     *
+     * @param consumer receives each formatted entry
+     */
+    static LogSink of(Consumer<String> consumer)
+    {
+        return (boolean stored, int quantity, String name) -> {
+            StringBuilder text = new StringBuilder(LogRecordEncoder.estimateLength(name));
+            LogRecordEncoder.appendEntry(text, stored, quantity, name);
+
+            consumer.accept(text.toString());
+        };
+    }
+
+    /**
+     * Create a sink that formats each entry directly into *out* (on the
+     * calling thread).
+     *
+     * @param out destination (e.g., a StringBuilder or a BufferedWriter)
+     */
+    static LogSink to(Appendable out)
+    {
+        return new LogSink() {
+            @Override
+            public void entry(boolean stored, int quantity, String name)
+            {
+                try {
+                    LogRecordEncoder.appendEntry(out, stored, quantity, name);
+                }
+                catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public void flush()
+                throws IOException
+            {
+                if (out instanceof Flushable) {
+                    ((Flushable) out).flush();
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,558 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+
+import items.Item;
+import items.Inventory;
+import items.ItemCatalog;
+
+
+/**
+ * Load itemList and inventoryList files by memory-mapping them and parsing
+ * bytes directly. Digits and whitespace are read as ASCII; only Item names
+ * are decoded (as UTF-8) into Strings.
+ * <p>
+ * Lines end with `\n` (an optional preceding `\r` is dropped). Files larger
+ * than a single mapping are processed in consecutive regions that always
+ * end on a line boundary.
+ */
+public class MappedLoader
+{
+    /**
+     * Maximum number of bytes mapped at once.
+     */
+    public static final int REGION_SIZE = 1 << 30;
+
+    /**
+     * Target number of bytes handed to each parallel task. A task always
+     * contains whole inventories, so it may be larger.
+     */
+    public static final int CHUNK_SIZE = 1 << 20;
+
+    /**
+     * Number of bytes read at once while searching for the next `#` line.
+     */
+    private static final int SCAN_BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Receive the bounds of each line in a mapped region.
+     */
+    @FunctionalInterface
+    private interface LineHandler
+    {
+        void accept(ByteSequence region, int from, int to);
+    }
+
+    /**
+     * Read the list of all possible items.
+     *
+     * @param itemFile path to an itemList file
+     *
+     * @return list of valid Items (sorted by id)
+     *
+     * @throws IOException if the file can not be opened or read
+     */
+    public static List<Item> loadItemList(Path itemFile)
+        throws IOException
+    {
+        LineTokenizer tokens = new LineTokenizer();
+        List<Item> items = new ArrayList<>();
+
+        forEachLine(
+            itemFile,
+            (ByteSequence region, int from, int to) -> {
+                Item item = tokens.parseItem(region, from, to);
+
+                if (item != null) {
+                    items.add(item);
+                }
+            }
+        );
+
+        items.sort(
+            Comparator.comparing(item -> item.getID())
+        );
+
+        return items;
+    }
+
+    /**
+     * Read the list of all possible items and index them by id.
+     *
+     * @param itemFile path to an itemList file
+     *
+     * @return catalog of valid Items
+     *
+     * @throws IOException if the file can not be opened or read
+     */
+    public static ItemCatalog loadItemCatalog(Path itemFile)
+        throws IOException
+    {
+        return new ItemCatalog(loadItemList(itemFile));
+    }
+
+    /**
+     * Read an inventory file and hand off each log entry and Inventory as
+     * soon as it is available.
+     *
+     * @param inventoryFile path to an inventoryList file
+     * @param items catalog of valid Item entries
+     * @param logSink receives each Stored/Discarded entry
+     * @param inventorySink receives each Inventory once it is complete
+     *
+     * @throws IOException if the file can not be opened or read
+     */
+    public static void streamInventories(
+        Path inventoryFile,
+        ItemCatalog items,
+        Consumer<String> logSink,
+        Consumer<Inventory> inventorySink
+    )
+        throws IOException
+    {
+        streamInventories(inventoryFile, items, LogSink.of(logSink), inventorySink);
+    }
+
+    /**
+     * Read an inventory file and hand off each log entry and Inventory as
+     * soon as it is available.
+     *
+     * @param inventoryFile path to an inventoryList file
+     * @param items catalog of valid Item entries
+     * @param logSink receives each Stored/Discarded entry
+     * @param inventorySink receives each Inventory once it is complete
+     *
+     * @throws IOException if the file can not be opened or read
+     */
+    public static void streamInventories(
+        Path inventoryFile,
+        ItemCatalog items,
+        LogSink logSink,
+        Consumer<Inventory> inventorySink
+    )
+        throws IOException
+    {
+        InventoryParser parser = new InventoryParser(items, logSink, inventorySink);
+
+        forEachLine(inventoryFile, parser::acceptLine);
+
+        parser.finish();
+    }
+
+    /**
+     * Read an inventory file using the common ForkJoinPool.
+     *
+     * @see #parallelStreamInventories(Path, ItemCatalog, Consumer, Consumer, ForkJoinPool)
+     */
+    public static void parallelStreamInventories(
+        Path inventoryFile,
+        ItemCatalog items,
+        Consumer<String> logSink,
+        Consumer<Inventory> inventorySink
+    )
+        throws IOException
+    {
+        parallelStreamInventories(
+            inventoryFile, items, LogSink.of(logSink), inventorySink, ForkJoinPool.commonPool()
+        );
+    }
+
+    /**
+     * Read an inventory file using the common ForkJoinPool.
+     *
+     * @see #parallelStreamInventories(Path, ItemCatalog, LogSink, Consumer, ForkJoinPool)
+     */
+    public static void parallelStreamInventories(
+        Path inventoryFile,
+        ItemCatalog items,
+        LogSink logSink,
+        Consumer<Inventory> inventorySink
+    )
+        throws IOException
+    {
+        parallelStreamInventories(
+            inventoryFile, items, logSink, inventorySink, ForkJoinPool.commonPool()
+        );
+    }
+
+    /**
+     * Read an inventory file, building independent Inventories in parallel.
+     *
+     * @see #parallelStreamInventories(Path, ItemCatalog, LogSink, Consumer, ForkJoinPool)
+     */
+    public static void parallelStreamInventories(
+        Path inventoryFile,
+        ItemCatalog items,
+        Consumer<String> logSink,
+        Consumer<Inventory> inventorySink,
+        ForkJoinPool pool
+    )
+        throws IOException
+    {
+        parallelStreamInventories(inventoryFile, items, LogSink.of(logSink), inventorySink, pool);
+    }
+
+    /**
+     * Read an inventory file, building independent Inventories in parallel.
+     * The file is split into chunks that start at `#` lines; each chunk is
+     * parsed by its own task. Log entries and Inventories are handed off in
+     * the original file order--i.e., exactly as *streamInventories* would.
+     *
+     * @param inventoryFile path to an inventoryList file
+     * @param items catalog of valid Item entries
+     * @param logSink receives each Stored/Discarded entry
+     * @param inventorySink receives each Inventory once it is complete
+     * @param pool pool on which chunks are parsed
+     *
+     * @throws IOException if the file can not be opened or read, or if a
+     *     single Inventory is larger than REGION_SIZE
+     */
+    public static void parallelStreamInventories(
+        Path inventoryFile,
+        ItemCatalog items,
+        LogSink logSink,
+        Consumer<Inventory> inventorySink,
+        ForkJoinPool pool
+    )
+        throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(inventoryFile, StandardOpenOption.READ)) {
+            List<Long> boundaries = findChunkBoundaries(channel);
+            List<ForkJoinTask<ChunkResult>> tasks = new ArrayList<>();
+
+            for (int i = 0; i + 1 < boundaries.size(); ++i) {
+                final long chunkStart = boundaries.get(i);
+                final long chunkEnd   = boundaries.get(i + 1);
+
+                if (chunkEnd - chunkStart > REGION_SIZE) {
+                    throw new IOException(
+                        String.format("%s: inventory exceeds %d bytes", inventoryFile, REGION_SIZE)
+                    );
+                }
+
+                MappedByteBuffer buffer = channel.map(
+                    FileChannel.MapMode.READ_ONLY, chunkStart, chunkEnd - chunkStart
+                );
+
+                tasks.add(pool.submit(() -> parseChunk(buffer, items)));
+            }
+
+            //------------------------------------------------------------------
+            // Reassemble results in file order
+            //------------------------------------------------------------------
+            for (ForkJoinTask<ChunkResult> task : tasks) {
+                ChunkResult result = task.join();
+
+                result.log.replayTo(logSink);
+                result.inventories.forEach(inventorySink);
+            }
+        }
+    }
+
+    /**
+     * Everything produced while parsing a single chunk.
+     */
+    private static final class ChunkResult
+    {
+        final LogBuffer log = new LogBuffer();
+        final List<Inventory> inventories = new ArrayList<>();
+    }
+
+    /**
+     * Log entries held (unformatted) until they can be handed off in order.
+     */
+    private static final class LogBuffer implements LogSink
+    {
+        private boolean[] storedFlags = new boolean[64];
+        private int[] quantities = new int[64];
+        private String[] names = new String[64];
+        private int size = 0;
+
+        @Override
+        public void entry(boolean stored, int quantity, String name)
+        {
+            if (this.size == this.names.length) {
+                final int length = 2 * this.size;
+
+                this.storedFlags = Arrays.copyOf(this.storedFlags, length);
+                this.quantities  = Arrays.copyOf(this.quantities, length);
+                this.names       = Arrays.copyOf(this.names, length);
+            }
+
+            this.storedFlags[this.size] = stored;
+            this.quantities[this.size]  = quantity;
+            this.names[this.size]       = name;
+            ++this.size;
+        }
+
+        void replayTo(LogSink sink)
+        {
+            for (int i = 0; i < this.size; ++i) {
+                sink.entry(this.storedFlags[i], this.quantities[i], this.names[i]);
+            }
+        }
+    }
+
+    /**
+     * Parse one chunk (a run of whole inventories).
+     *
+     * @param buffer mapped bytes of the chunk
+     * @param items catalog of valid Item entries
+     */
+    private static ChunkResult parseChunk(ByteBuffer buffer, ItemCatalog items)
+    {
+        ChunkResult result = new ChunkResult();
+        InventoryParser parser = new InventoryParser(
+            items, result.log, result.inventories::add
+        );
+
+        ByteSequence chunk = new ByteSequence(buffer, 0, buffer.limit());
+        splitLines(chunk, true, parser::acceptLine);
+        parser.finish();
+
+        return result;
+    }
+
+    /**
+     * Determine where each chunk begins. Every boundary (other than 0 and
+     * the file size) is the offset of a line that starts with `#`.
+     *
+     * @param channel open inventoryList file
+     *
+     * @return sorted offsets--starting with 0 and ending with the file size
+     */
+    private static List<Long> findChunkBoundaries(FileChannel channel)
+        throws IOException
+    {
+        final long fileSize = channel.size();
+
+        List<Long> boundaries = new ArrayList<>();
+        boundaries.add(0L);
+
+        long candidate = CHUNK_SIZE;
+        while (candidate < fileSize) {
+            final long next = findNextInventoryLine(channel, candidate - 1);
+
+            if (next < 0) {
+                break;
+            }
+
+            boundaries.add(next);
+            candidate = next + CHUNK_SIZE;
+        }
+
+        if (fileSize > 0) {
+            boundaries.add(fileSize);
+        }
+
+        return boundaries;
+    }
+
+    /**
+     * Search for the next `\n#` sequence at or after *from*.
+     *
+     * @param channel open inventoryList file
+     * @param from offset at which to start searching
+     *
+     * @return offset of the `#` or -1 if there is none
+     */
+    private static long findNextInventoryLine(FileChannel channel, long from)
+        throws IOException
+    {
+        ByteBuffer scan = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        boolean previousWasNewline = false;
+        long offset = from;
+
+        while (true) {
+            scan.clear();
+            final int bytesRead = channel.read(scan, offset);
+
+            if (bytesRead <= 0) {
+                return -1;
+            }
+
+            for (int i = 0; i < bytesRead; ++i) {
+                final byte current = scan.get(i);
+
+                if (previousWasNewline && current == '#') {
+                    return offset + i;
+                }
+
+                previousWasNewline = current == '\n';
+            }
+
+            offset += bytesRead;
+        }
+    }
+
+    /**
+     * Map *file* region by region and report the bounds of every line.
+     *
+     * @param file file to read
+     * @param handler receives each line
+     *
+     * @throws IOException if the file can not be opened or read, or if a
+     *     single line is longer than REGION_SIZE
+     */
+    private static void forEachLine(Path file, LineHandler handler)
+        throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long fileSize = channel.size();
+            long regionStart = 0;
+
+            while (regionStart < fileSize) {
+                final long regionLength = Math.min(REGION_SIZE, fileSize - regionStart);
+                final boolean isLastRegion = regionStart + regionLength == fileSize;
+
+                MappedByteBuffer buffer = channel.map(
+                    FileChannel.MapMode.READ_ONLY, regionStart, regionLength
+                );
+                ByteSequence region = new ByteSequence(buffer, 0, (int) regionLength);
+
+                final int consumed = splitLines(region, isLastRegion, handler);
+
+                if (consumed == 0) {
+                    throw new IOException(
+                        String.format("%s: line exceeds %d bytes", file, REGION_SIZE)
+                    );
+                }
+
+                regionStart += consumed;
+            }
+        }
+    }
+
+    /**
+     * Report every complete line in *region*.
+     *
+     * @param region bytes to split
+     * @param isLastRegion true if a trailing unterminated line should be
+     *     reported
+     * @param handler receives each line
+     *
+     * @return number of bytes consumed (i.e., up to and including the last
+     *     `\n` or the whole region if it is the last)
+     */
+    private static int splitLines(ByteSequence region, boolean isLastRegion, LineHandler handler)
+    {
+        final int length = region.length();
+        int lineStart = 0;
+
+        for (int i = 0; i < length; ++i) {
+            if (region.byteAt(i) == '\n') {
+                handler.accept(region, lineStart, stripCarriageReturn(region, lineStart, i));
+                lineStart = i + 1;
+            }
+        }
+
+        if (isLastRegion && lineStart < length) {
+            handler.accept(region, lineStart, stripCarriageReturn(region, lineStart, length));
+            lineStart = length;
+        }
+
+        return lineStart;
+    }
+
+    /**
+     * Exclude a trailing `\r` from a line.
+     *
+     * @return adjusted end of the line
+     */
+    private static int stripCarriageReturn(ByteSequence region, int from, int to)
+    {
+        if (to > from && region.byteAt(to - 1) == '\r') {
+            return to - 1;
+        }
+
+        return to;
+    }
+
+    /**
+     * A read-only CharSequence view of bytes in a ByteBuffer. Each byte is
+     * treated as one character--i.e., ASCII. *toString* decodes the bytes as
+     * UTF-8 so that non-ASCII Item names survive.
+     */
+    static final class ByteSequence implements CharSequence
+    {
+        /**
+         * Underlying bytes.
+         */
+        private final ByteBuffer buffer;
+
+        /**
+         * Absolute index of the first byte in this view.
+         */
+        private final int offset;
+
+        /**
+         * Number of bytes in this view.
+         */
+        private final int count;
+
+        /**
+         * Wrap a portion of *buffer*.
+         *
+         * @param buffer underlying bytes
+         * @param offset absolute index of the first byte
+         * @param count number of bytes
+         */
+        ByteSequence(ByteBuffer buffer, int offset, int count)
+        {
+            this.buffer = buffer;
+            this.offset = offset;
+            this.count  = count;
+        }
+
+        /**
+         * Retrieve a raw byte.
+         *
+         * @param index position relative to the start of this view
+         */
+        byte byteAt(int index)
+        {
+            return this.buffer.get(this.offset + index);
+        }
+
+        @Override
+        public int length()
+        {
+            return this.count;
+        }
+
+        @Override
+        public char charAt(int index)
+        {
+            return (char) (this.byteAt(index) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end)
+        {
+            return new ByteSequence(this.buffer, this.offset + start, end - start);
+        }
+
+        @Override
+        public String toString()
+        {
+            byte[] bytes = new byte[this.count];
+
+            for (int i = 0; i < this.count; ++i) {
+                bytes[i] = this.byteAt(i);
+            }
+
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
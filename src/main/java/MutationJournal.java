@@ -0,0 +1,585 @@
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+import items.Item;
+import items.ItemStack;
+
+
+/**
+ * A MutationJournal is an append-only, checksummed log of Inventory
+ * mutations. Replaying the journal on top of the last snapshot rebuilds the
+ * Inventories as they were when the last durable record was written.
+ * <p>
+ * Appending a record only copies it into memory. A record is durable once
+ * *sync* (for its sequence number or later) returns. Threads that call
+ * *sync* while another thread is already writing simply wait for that
+ * write (or the next one)--one `force` covers every record appended before
+ * it started (group commit).
+ * <p>
+ * Every record is framed as
+ * <pre>
+ *   payload length, CRC32C of payload, payload
+ * </pre>
+ * A torn or corrupt record (e.g., from a crash mid-write) ends the journal;
+ * it and everything after it are discarded when the journal is reopened.
+ */
+public class MutationJournal implements AutoCloseable
+{
+    /**
+     * First four bytes of every journal ("INVJ").
+     */
+    public static final int MAGIC = 0x494E564A;
+
+    /**
+     * Version written by this class. Only this version can be read.
+     */
+    public static final int FORMAT_VERSION = 1;
+
+    /**
+     * Bytes before the first record (magic and version).
+     */
+    private static final int HEADER_SIZE = 2 * Integer.BYTES;
+
+    /**
+     * Bytes before each payload (length and checksum).
+     */
+    private static final int FRAME_SIZE = 2 * Integer.BYTES;
+
+    /**
+     * Initial size of each in-memory record buffer.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private static final byte NEW_INVENTORY = 1;
+    private static final byte ADD_ITEMS     = 2;
+    private static final byte CHECKPOINT    = 3;
+
+    /**
+     * Receive each record while a journal is replayed.
+     */
+    public interface RecordHandler
+    {
+        /**
+         * A new (empty) Inventory was appended to the list.
+         *
+         * @param capacity size of the new Inventory
+         */
+        void newInventory(int capacity)
+            throws IOException;
+
+        /**
+         * Items were stored in an Inventory.
+         *
+         * @param inventory position of the Inventory in the list
+         * @param item Item that was stored
+         * @param quantity number of items stored
+         */
+        void addItems(int inventory, Item item, int quantity)
+            throws IOException;
+
+        /**
+         * Every earlier record is included in a (new) snapshot.
+         */
+        void checkpoint()
+            throws IOException;
+    }
+
+    /**
+     * Journal file (open for reading and writing).
+     */
+    private final FileChannel channel;
+
+    /**
+     * Guards every field below.
+     */
+    private final Object lock = new Object();
+
+    /**
+     * Records appended but not yet handed to a writer.
+     */
+    private ByteBuffer pending;
+
+    /**
+     * Empty buffer swapped in for *pending* when a write starts.
+     */
+    private ByteBuffer spare;
+
+    /**
+     * Sequence number of the most recently appended record.
+     */
+    private long appendedSeq;
+
+    /**
+     * Every record with a sequence number up to this one is durable.
+     */
+    private long durableSeq;
+
+    /**
+     * True while one thread is writing (and forcing) a batch.
+     */
+    private boolean syncing;
+
+    /**
+     * First write failure--once set, the journal can not be used.
+     */
+    private IOException failure;
+
+    /**
+     * Offset (in *pending*) of the record being appended.
+     */
+    private int recordStart;
+
+    /**
+     * Used to checksum each record.
+     */
+    private final CRC32C crc = new CRC32C();
+
+    private MutationJournal(FileChannel channel)
+    {
+        this.channel = channel;
+        this.pending = ByteBuffer.allocate(BUFFER_SIZE);
+        this.spare   = ByteBuffer.allocate(BUFFER_SIZE);
+    }
+
+    /**
+     * Open (or create) a journal, replay its records and prepare it for
+     * appending. Any torn record at the end is discarded.
+     *
+     * @param journalFile journal to open
+     * @param handler receives every valid record (in order)
+     *
+     * @throws IOException if the file can not be read or written, or is
+     *     not a journal
+     */
+    public static MutationJournal open(Path journalFile, RecordHandler handler)
+        throws IOException
+    {
+        FileChannel channel = FileChannel.open(
+            journalFile,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE
+        );
+
+        try {
+            long validEnd = scan(channel, handler);
+
+            if (validEnd == 0) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.putInt(MAGIC).putInt(FORMAT_VERSION).flip();
+
+                channel.truncate(0);
+                writeFully(channel, header, 0);
+                validEnd = HEADER_SIZE;
+            }
+
+            channel.truncate(validEnd);
+            channel.force(true);
+            channel.position(validEnd);
+
+            return new MutationJournal(channel);
+        }
+        catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Read every valid record of a journal without opening it for writing.
+     *
+     * @param journalFile journal to read
+     * @param handler receives every valid record (in order)
+     *
+     * @throws IOException if the file can not be read or is not a journal
+     */
+    public static void replay(Path journalFile, RecordHandler handler)
+        throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.READ)) {
+            scan(channel, handler);
+        }
+    }
+
+    /**
+     * Record the creation of a new Inventory.
+     *
+     * @param capacity size of the new Inventory
+     *
+     * @return sequence number of the record
+     */
+    public long appendNewInventory(int capacity)
+        throws IOException
+    {
+        synchronized (this.lock) {
+            ByteBuffer buf = this.beginRecord(1 + Integer.BYTES);
+            buf.put(NEW_INVENTORY);
+            buf.putInt(capacity);
+
+            return this.endRecord();
+        }
+    }
+
+    /**
+     * Record that a stack was stored in an Inventory.
+     *
+     * @param inventory position of the Inventory in the list
+     * @param stack stack that was stored
+     *
+     * @return sequence number of the record
+     */
+    public long appendAddItems(int inventory, ItemStack stack)
+        throws IOException
+    {
+        byte[] name = stack.getItem().getName().getBytes(StandardCharsets.UTF_8);
+
+        synchronized (this.lock) {
+            ByteBuffer buf = this.beginRecord(1 + 4 * Integer.BYTES + name.length);
+            buf.put(ADD_ITEMS);
+            buf.putInt(inventory);
+            buf.putInt(stack.getItem().getID());
+            buf.putInt(stack.size());
+            buf.putInt(name.length);
+            buf.put(name);
+
+            return this.endRecord();
+        }
+    }
+
+    /**
+     * Record that every earlier record is included in a snapshot.
+     *
+     * @return sequence number of the record
+     */
+    public long appendCheckpoint()
+        throws IOException
+    {
+        synchronized (this.lock) {
+            ByteBuffer buf = this.beginRecord(1);
+            buf.put(CHECKPOINT);
+
+            return this.endRecord();
+        }
+    }
+
+    /**
+     * Block until every record up to (and including) *seq* is durable.
+     *
+     * @param seq sequence number returned by one of the append methods
+     *
+     * @throws IOException if the records could not be written
+     */
+    public void sync(long seq)
+        throws IOException
+    {
+        ByteBuffer batch;
+        long target;
+
+        //----------------------------------------------------------------------
+        // Wait for the current writer or become the writer
+        //----------------------------------------------------------------------
+        synchronized (this.lock) {
+            while (true) {
+                this.checkFailure();
+
+                if (this.durableSeq >= seq) {
+                    return;
+                }
+
+                if (!this.syncing) {
+                    break;
+                }
+
+                this.await();
+            }
+
+            this.syncing = true;
+            batch        = this.pending;
+            target       = this.appendedSeq;
+            this.pending = this.spare;
+            this.spare   = null;
+        }
+
+        //----------------------------------------------------------------------
+        // Write and force the whole batch (without holding the lock)
+        //----------------------------------------------------------------------
+        try {
+            batch.flip();
+            while (batch.hasRemaining()) {
+                this.channel.write(batch);
+            }
+            this.channel.force(false);
+        }
+        catch (IOException e) {
+            synchronized (this.lock) {
+                this.failure = e;
+                this.syncing = false;
+                this.lock.notifyAll();
+            }
+
+            throw e;
+        }
+
+        batch.clear();
+
+        synchronized (this.lock) {
+            this.durableSeq = target;
+            this.spare      = batch;
+            this.syncing    = false;
+            this.lock.notifyAll();
+        }
+    }
+
+    /**
+     * Block until every record appended so far is durable.
+     */
+    public void sync()
+        throws IOException
+    {
+        final long seq;
+
+        synchronized (this.lock) {
+            seq = this.appendedSeq;
+        }
+
+        this.sync(seq);
+    }
+
+    /**
+     * Discard every record (durable or not), leaving an empty journal.
+     */
+    public void reset()
+        throws IOException
+    {
+        synchronized (this.lock) {
+            while (this.syncing) {
+                this.await();
+            }
+
+            this.checkFailure();
+
+            this.pending.clear();
+            this.channel.truncate(HEADER_SIZE);
+            this.channel.position(HEADER_SIZE);
+            this.channel.force(true);
+
+            this.durableSeq = this.appendedSeq;
+        }
+    }
+
+    /**
+     * Sync any remaining records and close the file.
+     */
+    @Override
+    public void close()
+        throws IOException
+    {
+        try {
+            this.sync();
+        }
+        finally {
+            this.channel.close();
+        }
+    }
+
+    /**
+     * Reserve room for one record in *pending* and write its frame
+     * (the checksum is filled in by *endRecord*).
+     */
+    private ByteBuffer beginRecord(int payloadLength)
+        throws IOException
+    {
+        this.checkFailure();
+
+        final int needed = FRAME_SIZE + payloadLength;
+
+        if (this.pending.remaining() < needed) {
+            ByteBuffer larger = ByteBuffer.allocate(
+                Math.max(2 * this.pending.capacity(), this.pending.position() + needed)
+            );
+
+            this.pending.flip();
+            larger.put(this.pending);
+            this.pending = larger;
+        }
+
+        this.recordStart = this.pending.position();
+        this.pending.putInt(payloadLength);
+        this.pending.putInt(0);
+
+        return this.pending;
+    }
+
+    /**
+     * Checksum the record just written to *pending*.
+     */
+    private long endRecord()
+    {
+        final int payloadStart = this.recordStart + FRAME_SIZE;
+
+        this.crc.reset();
+        this.crc.update(
+            this.pending.array(), payloadStart, this.pending.position() - payloadStart
+        );
+        this.pending.putInt(this.recordStart + Integer.BYTES, (int) this.crc.getValue());
+
+        return ++this.appendedSeq;
+    }
+
+    /**
+     * Throw the first write failure (if any).
+     */
+    private void checkFailure()
+        throws IOException
+    {
+        if (this.failure != null) {
+            throw new IOException("Journal is unusable after a failed write", this.failure);
+        }
+    }
+
+    /**
+     * Wait on *lock* (which must be held).
+     */
+    private void await()
+        throws IOException
+    {
+        try {
+            this.lock.wait();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the journal");
+        }
+    }
+
+    /**
+     * Validate the header and hand every valid record to *handler*.
+     *
+     * @return offset just past the last valid record (0 if the file does
+     *     not yet contain a complete header)
+     */
+    private static long scan(FileChannel channel, RecordHandler handler)
+        throws IOException
+    {
+        final long size = channel.size();
+
+        if (size < HEADER_SIZE) {
+            return 0;
+        }
+
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Journal is too large--checkpoint more often");
+        }
+
+        MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+        if (buf.getInt(0) != MAGIC) {
+            throw new IOException("Not an inventory journal");
+        }
+
+        if (buf.getInt(Integer.BYTES) != FORMAT_VERSION) {
+            throw new IOException(
+                String.format("Unsupported journal version %d", buf.getInt(Integer.BYTES))
+            );
+        }
+
+        CRC32C check = new CRC32C();
+        int pos = HEADER_SIZE;
+
+        while (size - pos >= FRAME_SIZE) {
+            final int length = buf.getInt(pos);
+            final int expected = buf.getInt(pos + Integer.BYTES);
+
+            if (length < 1 || length > size - pos - FRAME_SIZE) {
+                break;
+            }
+
+            ByteBuffer payload = buf.duplicate();
+            payload.limit(pos + FRAME_SIZE + length);
+            payload.position(pos + FRAME_SIZE);
+
+            check.reset();
+            check.update(payload.duplicate());
+
+            if ((int) check.getValue() != expected || !dispatch(payload, handler)) {
+                break;
+            }
+
+            pos += FRAME_SIZE + length;
+        }
+
+        return pos;
+    }
+
+    /**
+     * Decode one (checksummed) payload and pass it to *handler*.
+     *
+     * @return false if the payload is malformed
+     */
+    private static boolean dispatch(ByteBuffer payload, RecordHandler handler)
+        throws IOException
+    {
+        final byte type = payload.get();
+
+        switch (type) {
+            case NEW_INVENTORY:
+                if (payload.remaining() != Integer.BYTES) {
+                    return false;
+                }
+
+                handler.newInventory(payload.getInt());
+                return true;
+
+            case ADD_ITEMS:
+                if (payload.remaining() < 4 * Integer.BYTES) {
+                    return false;
+                }
+
+                final int inventory = payload.getInt();
+                final int id = payload.getInt();
+                final int quantity = payload.getInt();
+                final int nameLength = payload.getInt();
+
+                if (nameLength != payload.remaining()) {
+                    return false;
+                }
+
+                byte[] name = new byte[nameLength];
+                payload.get(name);
+
+                handler.addItems(
+                    inventory, Item.immutable(id, new String(name, StandardCharsets.UTF_8)), quantity
+                );
+                return true;
+
+            case CHECKPOINT:
+                if (payload.hasRemaining()) {
+                    return false;
+                }
+
+                handler.checkpoint();
+                return true;
+
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Write every remaining byte of *source* starting at *position*.
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer source, long position)
+        throws IOException
+    {
+        while (source.hasRemaining()) {
+            position += channel.write(source, position);
+        }
+    }
+}
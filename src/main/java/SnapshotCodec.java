@@ -0,0 +1,456 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.HashMap;
+
+import items.Item;
+import items.ItemStack;
+import items.Inventory;
+import items.SlotCursor;
+
+
+/**
+ * Save and load a list of Inventories in a compact binary format, so they
+ * can be restored without re-parsing an inventoryList file.
+ * <p>
+ * All values are big-endian ints (strings are UTF-8 bytes preceded by
+ * their length):
+ * <pre>
+ *   magic            "INVS"
+ *   version          FORMAT_VERSION
+ *   item count       n
+ *   n x Item         id, name length, name bytes
+ *   inventory count  m
+ *   m x Inventory    capacity, slot count k, k x (Item index, quantity)
+ * </pre>
+ * Each distinct Item (id and name) is stored once in the Item table; slots
+ * refer to it by index. Loaded Inventories share one immutable Item per
+ * table entry.
+ * <p>
+ * Every count is checked before anything is allocated for it, so a corrupt
+ * or truncated snapshot is rejected with an IOException.
+ */
+public class SnapshotCodec
+{
+    /**
+     * First four bytes of every snapshot ("INVS").
+     */
+    public static final int MAGIC = 0x494E5653;
+
+    /**
+     * Version written by *write*. Only this version can be read.
+     */
+    public static final int FORMAT_VERSION = 1;
+
+    /**
+     * Size of the buffer used for channel reads and writes.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Longest Item name (in bytes) accepted by *read*.
+     */
+    private static final int MAX_NAME_LENGTH = 1 << 20;
+
+    /**
+     * Fewest bytes an Item table entry (id and name length) can take.
+     */
+    private static final int MIN_ITEM_BYTES = 2 * Integer.BYTES;
+
+    /**
+     * Fewest bytes an Inventory (capacity and slot count) can take.
+     */
+    private static final int MIN_INVENTORY_BYTES = 2 * Integer.BYTES;
+
+    /**
+     * Bytes taken by one slot (Item index and quantity).
+     */
+    private static final int SLOT_BYTES = 2 * Integer.BYTES;
+
+    /**
+     * Write a snapshot to a file (replacing any existing file).
+     *
+     * @param snapshotFile destination
+     * @param inventories Inventories to save
+     *
+     * @throws IOException if the file can not be written
+     */
+    public static void save(Path snapshotFile, List<Inventory> inventories)
+        throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(
+                snapshotFile,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING
+            )) {
+            write(channel, inventories);
+        }
+    }
+
+    /**
+     * Read a snapshot from a file.
+     *
+     * @param snapshotFile source
+     *
+     * @return Inventories in the order they were saved
+     *
+     * @throws IOException if the file can not be read or is not a valid
+     *     snapshot
+     */
+    public static List<Inventory> load(Path snapshotFile)
+        throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(snapshotFile, StandardOpenOption.READ)) {
+            return read(channel);
+        }
+    }
+
+    /**
+     * Write a snapshot to a channel.
+     *
+     * @param channel destination
+     * @param inventories Inventories to save
+     *
+     * @throws IOException if a write fails
+     */
+    public static void write(WritableByteChannel channel, List<Inventory> inventories)
+        throws IOException
+    {
+        //----------------------------------------------------------------------
+        // Build the Item table (one entry per distinct id and name)
+        //----------------------------------------------------------------------
+        List<Item> table = new ArrayList<>();
+        Map<Integer, List<Integer>> entriesById = new HashMap<>();
+
+        List<int[]> slotRefs = new ArrayList<>(inventories.size());
+
+        for (Inventory inv : inventories) {
+            int[] refs = new int[inv.utilizedSlots()];
+            int slot = 0;
+
+            // Read the slots in place--iterating would hand out every stack
+            SlotCursor cursor = inv.cursor();
+            while (cursor.next()) {
+                refs[slot++] = tableIndex(cursor.id(), cursor.name(), table, entriesById);
+            }
+
+            slotRefs.add(refs);
+        }
+
+        //----------------------------------------------------------------------
+        // Header and Item table
+        //----------------------------------------------------------------------
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+        buffer.putInt(MAGIC);
+        buffer.putInt(FORMAT_VERSION);
+        buffer.putInt(table.size());
+
+        for (Item item : table) {
+            byte[] name = item.getName().getBytes(StandardCharsets.UTF_8);
+
+            ensureRoom(channel, buffer, 2 * Integer.BYTES);
+            buffer.putInt(item.getID());
+            buffer.putInt(name.length);
+
+            if (name.length <= buffer.remaining()) {
+                buffer.put(name);
+            }
+            else {
+                drain(channel, buffer);
+                writeFully(channel, ByteBuffer.wrap(name));
+            }
+        }
+
+        //----------------------------------------------------------------------
+        // Inventories
+        //----------------------------------------------------------------------
+        ensureRoom(channel, buffer, Integer.BYTES);
+        buffer.putInt(inventories.size());
+
+        for (int i = 0; i < inventories.size(); ++i) {
+            Inventory inv = inventories.get(i);
+            int[] refs = slotRefs.get(i);
+
+            ensureRoom(channel, buffer, 2 * Integer.BYTES);
+            buffer.putInt(inv.totalSlots());
+            buffer.putInt(refs.length);
+
+            int slot = 0;
+            SlotCursor cursor = inv.cursor();
+            while (cursor.next()) {
+                ensureRoom(channel, buffer, 2 * Integer.BYTES);
+                buffer.putInt(refs[slot++]);
+                buffer.putInt(cursor.quantity());
+            }
+        }
+
+        drain(channel, buffer);
+    }
+
+    /**
+     * Read a snapshot from a channel.
+     *
+     * @param channel source
+     *
+     * @return Inventories in the order they were saved
+     *
+     * @throws IOException if a read fails or the data is not a valid
+     *     snapshot
+     */
+    public static List<Inventory> read(ReadableByteChannel channel)
+        throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        buffer.flip();
+
+        //----------------------------------------------------------------------
+        // Header
+        //----------------------------------------------------------------------
+        require(channel, buffer, 2 * Integer.BYTES);
+
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not an inventory snapshot");
+        }
+
+        final int version = buffer.getInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException(
+                String.format("Unsupported snapshot version %d (expected %d)", version, FORMAT_VERSION)
+            );
+        }
+
+        //----------------------------------------------------------------------
+        // Item table
+        //----------------------------------------------------------------------
+        final int itemCount = readCount(channel, buffer, "item count", MIN_ITEM_BYTES);
+        List<Item> table = new ArrayList<>(Math.min(itemCount, BUFFER_SIZE));
+
+        for (int i = 0; i < itemCount; ++i) {
+            require(channel, buffer, Integer.BYTES);
+            final int id = buffer.getInt();
+            final int nameLength = readCount(channel, buffer, "name length", 1);
+
+            if (nameLength > MAX_NAME_LENGTH) {
+                throw new IOException(
+                    String.format("Corrupt snapshot: name length %d exceeds %d", nameLength, MAX_NAME_LENGTH)
+                );
+            }
+
+            byte[] name = new byte[nameLength];
+            readBytes(channel, buffer, name);
+
+            table.add(Item.immutable(id, new String(name, StandardCharsets.UTF_8)));
+        }
+
+        //----------------------------------------------------------------------
+        // Inventories
+        //----------------------------------------------------------------------
+        final int inventoryCount =
+            readCount(channel, buffer, "inventory count", MIN_INVENTORY_BYTES);
+        List<Inventory> inventories = new ArrayList<>(Math.min(inventoryCount, BUFFER_SIZE));
+
+        for (int i = 0; i < inventoryCount; ++i) {
+            require(channel, buffer, Integer.BYTES);
+            final int capacity = buffer.getInt();
+            final int slotCount = readCount(channel, buffer, "slot count", SLOT_BYTES);
+
+            if (capacity < 0) {
+                throw new IOException("Corrupt snapshot: negative capacity " + capacity);
+            }
+
+            if (slotCount > capacity) {
+                throw new IOException("Corrupt snapshot: more slots than capacity");
+            }
+
+            Inventory inv = new Inventory(capacity);
+
+            for (int slot = 0; slot < slotCount; ++slot) {
+                require(channel, buffer, 2 * Integer.BYTES);
+                final int ref = buffer.getInt();
+                final int quantity = buffer.getInt();
+
+                if (ref < 0 || ref >= table.size()) {
+                    throw new IOException("Corrupt snapshot: bad Item index " + ref);
+                }
+
+                inv.addItemStackNoCheck(new ItemStack(table.get(ref), quantity));
+            }
+
+            inventories.add(inv);
+        }
+
+        return inventories;
+    }
+
+    /**
+     * Find (or add) the Item table entry for an Item id and name.
+     */
+    private static int tableIndex(
+        int itemId,
+        String name,
+        List<Item> table,
+        Map<Integer, List<Integer>> entriesById
+    )
+    {
+        List<Integer> candidates = entriesById.computeIfAbsent(
+            itemId, (Integer id) -> new ArrayList<>(1)
+        );
+
+        for (int index : candidates) {
+            if (table.get(index).getName().equals(name)) {
+                return index;
+            }
+        }
+
+        final int index = table.size();
+        table.add(Item.immutable(itemId, name));
+        candidates.add(index);
+
+        return index;
+    }
+
+    /**
+     * Write out the buffer if fewer than *bytes* bytes of room remain.
+     */
+    private static void ensureRoom(WritableByteChannel channel, ByteBuffer buffer, int bytes)
+        throws IOException
+    {
+        if (buffer.remaining() < bytes) {
+            drain(channel, buffer);
+        }
+    }
+
+    /**
+     * Write out (and clear) everything in the buffer.
+     */
+    private static void drain(WritableByteChannel channel, ByteBuffer buffer)
+        throws IOException
+    {
+        buffer.flip();
+        writeFully(channel, buffer);
+        buffer.clear();
+    }
+
+    /**
+     * Write every remaining byte of *source*.
+     */
+    private static void writeFully(WritableByteChannel channel, ByteBuffer source)
+        throws IOException
+    {
+        while (source.hasRemaining()) {
+            channel.write(source);
+        }
+    }
+
+    /**
+     * Make sure at least *bytes* unread bytes are in the buffer.
+     *
+     * @throws EOFException if the channel ends first
+     */
+    private static void require(ReadableByteChannel channel, ByteBuffer buffer, int bytes)
+        throws IOException
+    {
+        if (buffer.remaining() >= bytes) {
+            return;
+        }
+
+        buffer.compact();
+
+        while (buffer.position() < bytes) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Truncated snapshot");
+            }
+        }
+
+        buffer.flip();
+    }
+
+    /**
+     * Read a count and check it against the bytes left in the snapshot.
+     *
+     * @param field name of the count (for error messages)
+     * @param minBytesEach fewest bytes each counted entry can take
+     *
+     * @throws IOException if the count is negative or more entries than
+     *     the remaining bytes could hold
+     */
+    private static int readCount(
+        ReadableByteChannel channel,
+        ByteBuffer buffer,
+        String field,
+        int minBytesEach
+    )
+        throws IOException
+    {
+        require(channel, buffer, Integer.BYTES);
+        final int count = buffer.getInt();
+
+        if (count < 0) {
+            throw new IOException(
+                String.format("Corrupt snapshot: negative %s %d", field, count)
+            );
+        }
+
+        final long left = bytesLeft(channel, buffer);
+        if ((long) count * minBytesEach > left) {
+            throw new IOException(String.format(
+                "Corrupt snapshot: %s %d exceeds the %d bytes left", field, count, left
+            ));
+        }
+
+        return count;
+    }
+
+    /**
+     * Determine the number of unread bytes (buffered or not).
+     *
+     * @return byte count, or Long.MAX_VALUE if the channel's size is not
+     *     known
+     */
+    private static long bytesLeft(ReadableByteChannel channel, ByteBuffer buffer)
+        throws IOException
+    {
+        if (!(channel instanceof SeekableByteChannel)) {
+            return Long.MAX_VALUE;
+        }
+
+        SeekableByteChannel seekable = (SeekableByteChannel) channel;
+
+        return buffer.remaining() + seekable.size() - seekable.position();
+    }
+
+    /**
+     * Fill *dest* from the buffer (and then the channel, for long names).
+     */
+    private static void readBytes(ReadableByteChannel channel, ByteBuffer buffer, byte[] dest)
+        throws IOException
+    {
+        if (dest.length <= buffer.capacity()) {
+            require(channel, buffer, dest.length);
+            buffer.get(dest);
+            return;
+        }
+
+        final int buffered = buffer.remaining();
+        buffer.get(dest, 0, buffered);
+
+        ByteBuffer rest = ByteBuffer.wrap(dest, buffered, dest.length - buffered);
+        while (rest.hasRemaining()) {
+            if (channel.read(rest) < 0) {
+                throw new EOFException("Truncated snapshot");
+            }
+        }
+    }
+}
@@ -1,17 +1,22 @@
-import java.io.FileReader;
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Scanner;
-import java.util.Arrays;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Objects;
-import java.util.stream.Collectors;
 import java.util.Comparator;
+import java.util.function.Consumer;
+
+import javax.management.JMException;
 
 import items.Item;
-import items.ItemStack;
 import items.Inventory;
+import items.ItemCatalog;
+import items.Metrics;
+import items.ReportRenderer;
 
 
 /**
@@ -21,7 +26,20 @@ import items.Inventory;
 public class Storage
 {
     public static final String USAGE_MESSAGE =
-        "Usage: java -jar build/libs/Storage.jar itemList-file inventoryList-file";
+        "Usage: java -jar build/libs/Storage.jar itemList-file inventoryList-file"
+        + " [--parallel] [--from-snapshot] [--save-snapshot=file] [--metrics]";
+
+    /**
+     * Prefix of the option that names a file to which all Inventories are
+     * saved (as a binary snapshot) once they are built.
+     */
+    private static final String SAVE_SNAPSHOT_OPTION = "--save-snapshot=";
+
+    /**
+     * The summary report is written whenever this many characters have been
+     * rendered.
+     */
+    private static final int REPORT_BUFFER_SIZE = 1 << 16;
 
     /**
      * This is the Item Storage Assignment in Java.
@@ -39,26 +57,54 @@ public class Storage
             System.exit(1);
         }
 
-        List<Item> knownItems = null;
-        try {
-            BufferedReader itemReader = new BufferedReader(
-                new FileReader(argv[0])
-            );
+        boolean parallel = false;
+        boolean fromSnapshot = false;
+        Path saveSnapshotFile = null;
+        boolean metrics = false;
+        for (int i = 2; i < argv.length; ++i) {
+            if ("--parallel".equals(argv[i])) {
+                parallel = true;
+            }
+            else if ("--from-snapshot".equals(argv[i])) {
+                fromSnapshot = true;
+            }
+            else if ("--metrics".equals(argv[i])) {
+                metrics = true;
+            }
+            else if (argv[i].startsWith(SAVE_SNAPSHOT_OPTION)) {
+                saveSnapshotFile = Paths.get(argv[i].substring(SAVE_SNAPSHOT_OPTION.length()));
+            }
+            else {
+                System.err.println(USAGE_MESSAGE);
+                System.exit(2);
+            }
+        }
 
-            knownItems = Storage.parseItemList(itemReader);
+        // Metrics are reported on stderr so that stdout is unchanged
+        if (metrics) {
+            Metrics.enable(true);
+
+            try {
+                Metrics.registerMBeans();
+            }
+            catch (JMException e) {
+                System.err.printf("Warning: metrics are not available over JMX (%s)%n", e.getMessage());
+            }
+        }
+
+        ItemCatalog knownItems = null;
+        long phaseStart = Metrics.startTimer();
+        try {
+            knownItems = MappedLoader.loadItemCatalog(Paths.get(argv[0]));
+            Metrics.LOAD_CATALOG_PHASE.recordSince(phaseStart);
         }
         catch (IOException e) {
             System.err.printf("Error: %s could not be opened or read%n", argv[0]);
             System.exit(3);
         }
 
-        BufferedReader inventoryFile = null;
-        try {
-            inventoryFile = new BufferedReader(
-                new FileReader(argv[1])
-            );
-        }
-        catch (IOException e) {
+        Path inventoryFile = Paths.get(argv[1]);
+        if (!Files.isReadable(inventoryFile)) {
             System.err.printf("Error: %s could not be opened%n", argv[1]);
             System.exit(4);
         }
@@ -66,21 +112,69 @@ public class Storage
         //----------------------------------------------------------------------
         // Build all inventories (and generate a report "on the fly"
         //----------------------------------------------------------------------
-        List<Inventory> inventories = parseInventories(inventoryFile, knownItems);
+        List<Inventory> inventories = new ArrayList<>();
+
+        System.out.println("Processing Log:");
+        phaseStart = Metrics.startTimer();
+        if (fromSnapshot) {
+            // Nothing is stored or discarded--the log is empty
+            try {
+                inventories = SnapshotCodec.load(inventoryFile);
+            }
+            catch (IOException e) {
+                System.err.printf("Error: %s is not a valid snapshot (%s)%n", argv[1], e.getMessage());
+                System.exit(5);
+            }
+        }
+        else {
+            // Entries are formatted and written by a background thread
+            try (AsyncLogSink log = new AsyncLogSink(System.out)) {
+                if (parallel) {
+                    MappedLoader.parallelStreamInventories(
+                        inventoryFile, knownItems, log, inventories::add
+                    );
+                }
+                else {
+                    MappedLoader.streamInventories(
+                        inventoryFile, knownItems, log, inventories::add
+                    );
+                }
+            }
+        }
+
+        Metrics.PARSE_PHASE.recordSince(phaseStart);
+
+        if (saveSnapshotFile != null) {
+            SnapshotCodec.save(saveSnapshotFile, inventories);
+        }
 
         //----------------------------------------------------------------------
         // Output the final summary report
         //----------------------------------------------------------------------
-        System.out.println();
-        System.out.println("Item List:");
+        phaseStart = Metrics.startTimer();
+        StringBuilder report = new StringBuilder(REPORT_BUFFER_SIZE);
+
+        ReportRenderer.appendLineSeparator(report).append("Item List:");
+        ReportRenderer.appendLineSeparator(report);
         for (Item item : knownItems) {
-            System.out.printf("  %2d %s%n", item.getID(), item.getName());
+            ReportRenderer.appendItemLine(report, item.getID(), item.getName());
+            writeIfFull(report);
         }
 
-        System.out.println();
-        System.out.println("Storage Summary:");
+        ReportRenderer.appendLineSeparator(report).append("Storage Summary:");
+        ReportRenderer.appendLineSeparator(report);
         for (Inventory inv : inventories) {
-            System.out.println(inv);
+            ReportRenderer.appendInventory(report, inv);
+            ReportRenderer.appendLineSeparator(report);
+            writeIfFull(report);
+        }
+
+        System.out.append(report);
+        System.out.flush();
+        Metrics.REPORT_PHASE.recordSince(phaseStart);
+
+        if (metrics) {
+            System.err.print(Metrics.report());
         }
     }
 
@@ -96,30 +190,18 @@ public class Storage
     public static List<Item> parseItemList(BufferedReader reader)
         throws IOException
     {
-        List<Item> items = reader.lines()
-            .map(
-                (String line) -> {
-                    return line.split(" ");
-                }
-            )
-            .filter(
-                // Only process lines with exactly two tokens
-                // (1 int and at least 1 String)
-                (String[] splitLine) -> {
-                    return splitLine.length >= 2;
-                }
-            )
-            .map(
-                (String[] splitLine) -> {
-                    int id = Integer.parseInt(splitLine[0]);
-                    String name = Arrays.stream(splitLine)
-                        .skip(1)
-                        .collect(Collectors.joining(" ", "", ""));
-
-                    return new Item(id, name);
-                }
-            )
-            .collect(Collectors.toList());
+        LineTokenizer tokens = new LineTokenizer();
+        List<Item> items = new ArrayList<>();
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            // Only process lines with an int and at least 1 String
+            Item item = tokens.parseItem(line);
+
+            if (item != null) {
+                items.add(item);
+            }
+        }
 
         items.sort(
             Comparator.comparing(item -> item.getID())
@@ -128,6 +210,22 @@ public class Storage
         return items;
     }
 
+    /**
+     * Read a buffer containing the list of all possible items and index
+     * them by id.
+     *
+     * @param reader source from which to read Items
+     *
+     * @return catalog of valid Items
+     *
+     * @throws IOException if an input error occurs
+     */
+    public static ItemCatalog parseItemCatalog(BufferedReader reader)
+        throws IOException
+    {
+        return new ItemCatalog(parseItemList(reader));
+    }
+
     /**
      * Read inventory file and create all Inventory
      * instances.
@@ -139,79 +237,109 @@ public class Storage
     public static List<Inventory> parseInventories(BufferedReader reader, List<Item> items)
         throws IOException
     {
+        return parseInventories(reader, new ItemCatalog(items));
+    }
 
-        List<String[]> rawLines = reader
-            .lines()
-            .map(line -> line.split("\\s+"))
-            .collect(Collectors.toList());
-
+    /**
+     * Read inventory file and create all Inventory
+     * instances.
+     *
+     * @param items catalog of valid Item entries
+     *
+     * @pre items is non-empty
+     */
+    public static List<Inventory> parseInventories(BufferedReader reader, ItemCatalog items)
+        throws IOException
+    {
         List<Inventory> storage = new ArrayList<>();
-        Inventory inv = null;
 
         // Store the result of storing/discarding Items
-        List<String> storageLog = new ArrayList<>();
-
-        for (String[] lineTokens : rawLines) {
-            final char leadingChar = lineTokens[0].charAt(0);
+        StringBuilder storageLog = new StringBuilder();
 
-            //------------------------------------------------------------------
-            // Start a new Inventory
-            //------------------------------------------------------------------
-            if (leadingChar == '#') {
-                if (inv != null) {
-                    storage.add(inv);
-                }
+        streamInventories(reader, items, LogSink.to(storageLog), storage::add);
 
-                final int size = Integer.parseInt(lineTokens[1]);
-                inv = new Inventory(size);
+        //----------------------------------------------------------------------
+        // Output the report
+        //----------------------------------------------------------------------
+        System.out.println("Processing Log:");
+        System.out.print(storageLog);
 
-                continue;
-            }
+        return storage;
+    }
 
-            //------------------------------------------------------------------
-            // Read and process an Item Line
-            //------------------------------------------------------------------
-            final int itemId = Integer.parseInt(lineTokens[1]);
-            Item match = items
-                .stream()
-                .filter(
-                    (Item itm) -> {
-                        return itm.getID() == itemId;
-                    }
-                )
-                .findAny()
-                .orElse(null);
-
-            // Ignore any Item id not found in items
-            if (match == null) {
-                continue;
-            }
+    /**
+     * Read inventory file one line at a time. Nothing other than the
+     * Inventory currently being built (and at most
+     * InventoryParser.MAX_BATCH_SIZE pending stacks) is retained.
+     *
+     * @param reader source from which to read Inventory lines
+     * @param items catalog of valid Item entries
+     * @param logSink receives each Stored/Discarded entry (in line order)
+     *     as soon as its batch of at most InventoryParser.MAX_BATCH_SIZE
+     *     lines is processed
+     * @param inventorySink receives each Inventory once it is complete
+     *     (i.e., when the next `#` line or the end of input is reached)
+     *
+     * @throws IOException if an input error occurs
+     *
+     * @pre items is non-empty
+     */
+    public static void streamInventories(
+        BufferedReader reader,
+        ItemCatalog items,
+        Consumer<String> logSink,
+        Consumer<Inventory> inventorySink
+    )
+        throws IOException
+    {
+        streamInventories(reader, items, LogSink.of(logSink), inventorySink);
+    }
 
-            final int quantity = Integer.parseInt(lineTokens[2]);
-            ItemStack stack = new ItemStack(match.clone(), quantity);
+    /**
+     * Read inventory file one line at a time. Nothing other than the
+     * Inventory currently being built (and at most
+     * InventoryParser.MAX_BATCH_SIZE pending stacks) is retained.
+     *
+     * @param reader source from which to read Inventory lines
+     * @param items catalog of valid Item entries
+     * @param logSink receives each Stored/Discarded entry (in line order)
+     *     as soon as its batch of at most InventoryParser.MAX_BATCH_SIZE
+     *     lines is processed
+     * @param inventorySink receives each Inventory once it is complete
+     *     (i.e., when the next `#` line or the end of input is reached)
+     *
+     * @throws IOException if an input error occurs
+     *
+     * @pre items is non-empty
+     */
+    public static void streamInventories(
+        BufferedReader reader,
+        ItemCatalog items,
+        LogSink logSink,
+        Consumer<Inventory> inventorySink
+    )
+        throws IOException
+    {
+        InventoryParser parser = new InventoryParser(items, logSink, inventorySink);
 
-            final boolean itemWasStored = inv.addItems(stack);
-            storageLog.add(
-                itemWasStored
-                ? String.format(" Stored    %s%n", stack)
-                : String.format(" Discarded %s%n", stack)
-            );
+        String line;
+        while ((line = reader.readLine()) != null) {
+            parser.acceptLine(line);
         }
 
-        //----------------------------------------------------------------------
-        // Record the last (final) inventory
-        //----------------------------------------------------------------------
-        storage.add(inv);
+        parser.finish();
+    }
 
-        //----------------------------------------------------------------------
-        // Output the report
-        //----------------------------------------------------------------------
-        System.out.println("Processing Log:");
-        for (String entry : storageLog) {
-            System.out.print(entry);
+    /**
+     * Write (and empty) the report buffer once it is full.
+     *
+     * @param report rendered text not yet written
+     */
+    private static void writeIfFull(StringBuilder report)
+    {
+        if (report.length() >= REPORT_BUFFER_SIZE) {
+            System.out.append(report);
+            report.setLength(0);
         }
-
-        return storage;
     }
-
 }
@@ -0,0 +1,531 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+
+
+/**
+ * Generate synthetic itemList and inventoryList files--in exactly the
+ * formats that Storage reads--for benchmarking and load testing.
+ * <p>
+ * Command line use:
+ * <pre>
+ * java -cp build/classes/java/main WorkloadGenerator itemList-file inventoryList-file [--option=value ...]
+ * </pre>
+ * where each option matches one of the setters below--e.g.,
+ * `--catalogSize=200000 --inventoryCount=5000 --zipfExponent=1.1`.
+ * <p>
+ * The same seed always produces the same files.
+ */
+public class WorkloadGenerator
+{
+    public static final String USAGE_MESSAGE =
+        "Usage: java WorkloadGenerator itemList-file inventoryList-file [--option=value ...]";
+
+    /**
+     * First words used to build Item names.
+     */
+    private static final String[] MATERIALS = {
+        "Iron", "Gold", "Diamond", "Oak", "Stone", "Copper", "Emerald", "Obsidian"
+    };
+
+    /**
+     * Second words used to build Item names.
+     */
+    private static final String[] KINDS = {
+        "Ore", "Ingot", "Block", "Sword", "Shovel", "Boots", "Potion", "Helmet"
+    };
+
+    /**
+     * Number of Items in the itemList.
+     */
+    private int catalogSize = 1000;
+
+    /**
+     * Ratio of id range to catalogSize. 1 gives ids 0..catalogSize-1; larger
+     * values spread the ids out (i.e., leave gaps).
+     */
+    private double idSparsity = 1.0;
+
+    /**
+     * Number of `#` blocks in the inventoryList.
+     */
+    private int inventoryCount = 100;
+
+    /**
+     * Smallest Inventory capacity.
+     */
+    private int minSlots = 1;
+
+    /**
+     * Largest Inventory capacity.
+     */
+    private int maxSlots = 16;
+
+    /**
+     * Smallest number of item lines per Inventory.
+     */
+    private int minLines = 0;
+
+    /**
+     * Largest number of item lines per Inventory.
+     */
+    private int maxLines = 32;
+
+    /**
+     * Largest quantity on any item line.
+     */
+    private int maxQuantity = 64;
+
+    /**
+     * Fraction of item lines that reference an id not in the itemList.
+     */
+    private double unknownIdRate = 0.0;
+
+    /**
+     * Zipf exponent used to choose Items. 0 is uniform; larger values
+     * make a few Items (and therefore duplicate lines) far more common.
+     */
+    private double zipfExponent = 0.0;
+
+    /**
+     * Seed for all random choices.
+     */
+    private long seed = 330;
+
+    /**
+     * Generated ids (in catalog order). Built by *prepare*.
+     */
+    private int[] ids;
+
+    /**
+     * Cumulative Zipf probabilities by rank. Built by *prepare*.
+     */
+    private double[] rankCdf;
+
+    /**
+     * Generate a pair of files from the command line.
+     *
+     * @param argv itemList path, inventoryList path and options
+     */
+    public static void main(String[] argv)
+        throws IOException
+    {
+        if (argv.length < 2) {
+            System.err.println(USAGE_MESSAGE);
+            System.exit(1);
+        }
+
+        WorkloadGenerator generator = new WorkloadGenerator();
+
+        // Options may come in any order--ranges (e.g., minSlots and
+        // maxSlots) are checked once all of them are applied
+        try {
+            for (int i = 2; i < argv.length; ++i) {
+                generator.setOption(argv[i]);
+            }
+
+            generator.validate();
+        }
+        catch (IllegalArgumentException e) {
+            System.err.printf("Error: %s%n", e.getMessage());
+            System.err.println(USAGE_MESSAGE);
+            System.exit(2);
+        }
+
+        generator.writeFiles(Paths.get(argv[0]), Paths.get(argv[1]));
+    }
+
+    /**
+     * Apply a `--name=value` option. A range bound (e.g., `--minSlots`) is
+     * not checked against the other bound until *validate* (or generation),
+     * so the bounds may be given in either order.
+     *
+     * @param option option text
+     *
+     * @throws IllegalArgumentException if the option is unknown or malformed
+     */
+    public void setOption(String option)
+    {
+        final int equals = option.indexOf('=');
+
+        if (!option.startsWith("--") || equals < 0) {
+            throw new IllegalArgumentException("malformed option " + option);
+        }
+
+        final String name  = option.substring(2, equals);
+        final String value = option.substring(equals + 1);
+
+        switch (name) {
+            case "catalogSize":
+                this.setCatalogSize(Integer.parseInt(value));
+                break;
+            case "idSparsity":
+                this.setIdSparsity(Double.parseDouble(value));
+                break;
+            case "inventoryCount":
+                this.setInventoryCount(Integer.parseInt(value));
+                break;
+            case "minSlots":
+                this.minSlots = Integer.parseInt(value);
+                break;
+            case "maxSlots":
+                this.maxSlots = Integer.parseInt(value);
+                break;
+            case "minLines":
+                this.minLines = Integer.parseInt(value);
+                break;
+            case "maxLines":
+                this.maxLines = Integer.parseInt(value);
+                break;
+            case "maxQuantity":
+                this.setMaxQuantity(Integer.parseInt(value));
+                break;
+            case "unknownIdRate":
+                this.setUnknownIdRate(Double.parseDouble(value));
+                break;
+            case "zipfExponent":
+                this.setZipfExponent(Double.parseDouble(value));
+                break;
+            case "seed":
+                this.setSeed(Long.parseLong(value));
+                break;
+            default:
+                throw new IllegalArgumentException("unknown option " + option);
+        }
+    }
+
+    /**
+     * @param size number of Items in the itemList (at least 1)
+     *
+     * @return this generator
+     */
+    public WorkloadGenerator setCatalogSize(int size)
+    {
+        requireArgument(size >= 1, "catalogSize must be at least 1");
+        this.catalogSize = size;
+
+        return this;
+    }
+
+    /**
+     * @param sparsity ratio of id range to catalog size (at least 1)
+     *
+     * @return this generator
+     */
+    public WorkloadGenerator setIdSparsity(double sparsity)
+    {
+        requireArgument(sparsity >= 1.0, "idSparsity must be at least 1");
+        this.idSparsity = sparsity;
+
+        return this;
+    }
+
+    /**
+     * @param count number of Inventories
+     *
+     * @return this generator
+     */
+    public WorkloadGenerator setInventoryCount(int count)
+    {
+        requireArgument(count >= 0, "inventoryCount must not be negative");
+        this.inventoryCount = count;
+
+        return this;
+    }
+
+    /**
+     * @param min smallest Inventory capacity
+     * @param max largest Inventory capacity
+     *
+     * @return this generator
+     */
+    public WorkloadGenerator setSlots(int min, int max)
+    {
+        requireArgument(0 <= min && min <= max, "need 0 <= minSlots <= maxSlots");
+        this.minSlots = min;
+        this.maxSlots = max;
+
+        return this;
+    }
+
+    /**
+     * @param min smallest number of item lines per Inventory
+     * @param max largest number of item lines per Inventory
+     *
+     * @return this generator
+     */
+    public WorkloadGenerator setLinesPerInventory(int min, int max)
+    {
+        requireArgument(0 <= min && min <= max, "need 0 <= minLines <= maxLines");
+        this.minLines = min;
+        this.maxLines = max;
+
+        return this;
+    }
+
+    /**
+     * @param max largest quantity on any item line
+     *
+     * @return this generator
+     */
+    public WorkloadGenerator setMaxQuantity(int max)
+    {
+        requireArgument(max >= 1, "maxQuantity must be at least 1");
+        this.maxQuantity = max;
+
+        return this;
+    }
+
+    /**
+     * @param rate fraction (0 to 1) of item lines with an unknown id
+     *
+     * @return this generator
+     */
+    public WorkloadGenerator setUnknownIdRate(double rate)
+    {
+        requireArgument(0.0 <= rate && rate <= 1.0, "unknownIdRate must be in [0, 1]");
+        this.unknownIdRate = rate;
+
+        return this;
+    }
+
+    /**
+     * @param exponent Zipf exponent (0 for uniform)
+     *
+     * @return this generator
+     */
+    public WorkloadGenerator setZipfExponent(double exponent)
+    {
+        requireArgument(exponent >= 0.0, "zipfExponent must not be negative");
+        this.zipfExponent = exponent;
+
+        return this;
+    }
+
+    /**
+     * @param newSeed seed for all random choices
+     *
+     * @return this generator
+     */
+    public WorkloadGenerator setSeed(long newSeed)
+    {
+        this.seed = newSeed;
+
+        return this;
+    }
+
+    /**
+     * Write both files.
+     *
+     * @param itemFile destination for the itemList
+     * @param inventoryFile destination for the inventoryList
+     *
+     * @throws IOException if either file can not be written
+     */
+    public void writeFiles(Path itemFile, Path inventoryFile)
+        throws IOException
+    {
+        try (BufferedWriter writer = Files.newBufferedWriter(itemFile, StandardCharsets.UTF_8)) {
+            this.writeItemList(writer);
+        }
+
+        try (BufferedWriter writer = Files.newBufferedWriter(inventoryFile, StandardCharsets.UTF_8)) {
+            this.writeInventoryList(writer);
+        }
+    }
+
+    /**
+     * Write an itemList--one `id name` line per Item.
+     *
+     * @param out destination
+     *
+     * @throws IOException if an output error occurs
+     */
+    public void writeItemList(Writer out)
+        throws IOException
+    {
+        this.prepare();
+
+        StringBuilder line = new StringBuilder();
+        for (int id : this.ids) {
+            line.setLength(0);
+            line.append(id)
+                .append(' ')
+                .append(MATERIALS[Math.floorMod(id, MATERIALS.length)])
+                .append(' ')
+                .append(KINDS[Math.floorMod(id / MATERIALS.length, KINDS.length)])
+                .append('\n');
+
+            out.append(line);
+        }
+    }
+
+    /**
+     * Write an inventoryList--a `# capacity` line per Inventory followed by
+     * `- id quantity` lines.
+     *
+     * @param out destination
+     *
+     * @throws IOException if an output error occurs
+     */
+    public void writeInventoryList(Writer out)
+        throws IOException
+    {
+        this.prepare();
+
+        // Keep Item choices independent of the itemList
+        Random random = new Random(this.seed ^ 0x5DEECE66DL);
+
+        // Map Zipf ranks onto ids so that popular Items are not always the
+        // smallest ids.
+        int[] idsByRank = this.ids.clone();
+        shuffle(idsByRank, random);
+
+        final int firstUnknownId = this.ids[this.ids.length - 1] + 1;
+
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < this.inventoryCount; ++i) {
+            line.setLength(0);
+            line.append("# ").append(between(random, this.minSlots, this.maxSlots)).append('\n');
+            out.append(line);
+
+            final int lines = between(random, this.minLines, this.maxLines);
+            for (int j = 0; j < lines; ++j) {
+                final int id = random.nextDouble() < this.unknownIdRate
+                    ? firstUnknownId + random.nextInt(this.catalogSize)
+                    : idsByRank[this.chooseRank(random)];
+                final int quantity = between(random, 1, this.maxQuantity);
+
+                line.setLength(0);
+                line.append("- ").append(id).append(' ');
+                if (quantity < 10) {
+                    line.append(' ');
+                }
+                line.append(quantity).append('\n');
+
+                out.append(line);
+            }
+        }
+    }
+
+    /**
+     * Check the settings that depend on each other.
+     *
+     * @return this generator
+     *
+     * @throws IllegalArgumentException if a range is empty (or negative) or
+     *     the ids would not fit in an int
+     */
+    public WorkloadGenerator validate()
+    {
+        requireArgument(
+            0 <= this.minSlots && this.minSlots <= this.maxSlots,
+            "need 0 <= minSlots <= maxSlots"
+        );
+        requireArgument(
+            0 <= this.minLines && this.minLines <= this.maxLines,
+            "need 0 <= minLines <= maxLines"
+        );
+
+        // Known ids and unknown ids (which follow them) must fit in an int
+        requireArgument(
+            (this.idSparsity + 1.0) * this.catalogSize < Integer.MAX_VALUE,
+            "catalogSize * (idSparsity + 1) must fit in an int"
+        );
+
+        return this;
+    }
+
+    /**
+     * Build the id list and Zipf table for the current settings.
+     */
+    private void prepare()
+    {
+        this.validate();
+
+        Random random = new Random(this.seed);
+
+        //----------------------------------------------------------------------
+        // Each id falls in its own [i * sparsity, (i + 1) * sparsity) window,
+        // so ids are distinct and sorted.
+        //----------------------------------------------------------------------
+        this.ids = new int[this.catalogSize];
+        for (int i = 0; i < this.catalogSize; ++i) {
+            final long low  = (long) Math.floor(i * this.idSparsity);
+            final long high = (long) Math.floor((i + 1) * this.idSparsity);
+
+            this.ids[i] = (int) (low + (high > low + 1 ? random.nextInt((int) (high - low)) : 0));
+        }
+
+        //----------------------------------------------------------------------
+        // P(rank k) is proportional to 1 / (k + 1)^exponent
+        //----------------------------------------------------------------------
+        this.rankCdf = new double[this.catalogSize];
+        double total = 0.0;
+        for (int k = 0; k < this.catalogSize; ++k) {
+            total += 1.0 / Math.pow(k + 1, this.zipfExponent);
+            this.rankCdf[k] = total;
+        }
+        for (int k = 0; k < this.catalogSize; ++k) {
+            this.rankCdf[k] /= total;
+        }
+    }
+
+    /**
+     * Choose an Item rank according to the Zipf distribution.
+     */
+    private int chooseRank(Random random)
+    {
+        final int found = Arrays.binarySearch(this.rankCdf, random.nextDouble());
+        final int rank  = found >= 0 ? found : -found - 1;
+
+        return Math.min(rank, this.catalogSize - 1);
+    }
+
+    /**
+     * Choose uniformly from [low, high].
+     */
+    private static int between(Random random, int low, int high)
+    {
+        // The span overflows an int when, e.g., high is Integer.MAX_VALUE
+        final long span = (long) high - low + 1;
+
+        if (span <= Integer.MAX_VALUE) {
+            return low + random.nextInt((int) span);
+        }
+
+        return (int) (low + Math.floorMod(random.nextLong(), span));
+    }
+
+    /**
+     * Fisher-Yates shuffle.
+     */
+    private static void shuffle(int[] values, Random random)
+    {
+        for (int i = values.length - 1; i > 0; --i) {
+            final int j = random.nextInt(i + 1);
+            final int tmp = values[i];
+
+            values[i] = values[j];
+            values[j] = tmp;
+        }
+    }
+
+    /**
+     * Reject an invalid setting.
+     *
+     * @throws IllegalArgumentException if *condition* is false
+     */
+    private static void requireArgument(boolean condition, String message)
+    {
+        if (!condition) {
+            throw new IllegalArgumentException(message);
+        }
+    }
+}
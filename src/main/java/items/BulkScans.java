@@ -0,0 +1,137 @@
+package items;
+
+import java.util.Arrays;
+
+/**
+ * Bulk scans over primitive (int) id and quantity arrays--the layout used by
+ * CompactInventory.
+ * <p>
+ * Each loop is branch-free, and the sums keep four independent
+ * accumulators, so the JIT can unroll and auto-vectorize them (and the CPU
+ * can overlap iterations). Every method reads elements 0 to *length* - 1
+ * only.
+ */
+public final class BulkScans
+{
+    /**
+     * Above this many wanted ids, *containsAny* builds an index instead of
+     * comparing every slot with every wanted id.
+     */
+    private static final int MAX_LINEAR_WANTED = 16;
+
+    private BulkScans()
+    {
+    }
+
+    /**
+     * Sum the first *length* values.
+     *
+     * @param values quantities
+     * @param length number of values to include
+     */
+    public static long sum(int[] values, int length)
+    {
+        long sum0 = 0;
+        long sum1 = 0;
+        long sum2 = 0;
+        long sum3 = 0;
+
+        int i = 0;
+        for (; i + 3 < length; i += 4) {
+            sum0 += values[i];
+            sum1 += values[i + 1];
+            sum2 += values[i + 2];
+            sum3 += values[i + 3];
+        }
+
+        for (; i < length; ++i) {
+            sum0 += values[i];
+        }
+
+        return (sum0 + sum1) + (sum2 + sum3);
+    }
+
+    /**
+     * Count the values below a threshold.
+     *
+     * @param values quantities
+     * @param length number of values to examine
+     * @param threshold exclusive upper bound
+     */
+    public static int countBelow(int[] values, int length, int threshold)
+    {
+        int count = 0;
+
+        for (int i = 0; i < length; ++i) {
+            // (v - t) is negative exactly when v < t (computed in long to
+            // avoid overflow)--its sign bit is the 0/1 result
+            count += (int) (((long) values[i] - threshold) >>> (Long.SIZE - 1));
+        }
+
+        return count;
+    }
+
+    /**
+     * Find the positions of all values below a threshold.
+     *
+     * @param values quantities
+     * @param length number of values to examine
+     * @param threshold exclusive upper bound
+     *
+     * @return matching positions in increasing order
+     */
+    public static int[] indicesBelow(int[] values, int length, int threshold)
+    {
+        int[] found = new int[length];
+        int count = 0;
+
+        // Write every position, but only advance past the matches
+        for (int i = 0; i < length; ++i) {
+            found[count] = i;
+            count += (int) (((long) values[i] - threshold) >>> (Long.SIZE - 1));
+        }
+
+        return Arrays.copyOf(found, count);
+    }
+
+    /**
+     * Determine whether any of the first *length* ids is one of the wanted
+     * ids.
+     *
+     * @param ids Item ids
+     * @param length number of ids to examine
+     * @param wanted ids for which to search
+     */
+    public static boolean containsAny(int[] ids, int length, int... wanted)
+    {
+        if (wanted.length > MAX_LINEAR_WANTED) {
+            IntIndex wantedIndex = new IntIndex();
+            for (int id : wanted) {
+                wantedIndex.putIfAbsent(id, 0);
+            }
+
+            for (int i = 0; i < length; ++i) {
+                if (wantedIndex.get(ids[i]) != IntIndex.ABSENT) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        for (int i = 0; i < length; ++i) {
+            final int id = ids[i];
+            boolean found = false;
+
+            for (int w : wanted) {
+                found |= id == w;
+            }
+
+            if (found) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,519 @@
+package items;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A CompactInventory behaves like an Inventory, but stores each slot as a
+ * pair of ints (Item id and quantity) in parallel arrays. Item names are
+ * looked up in a shared ItemCatalog only when needed (e.g., *toString*).
+ * <p>
+ * ItemStacks returned by *findMatchingItemStack* and *iterator* are
+ * copies--changing them does not change the inventory.
+ */
+public class CompactInventory implements Iterable<ItemStack>, Cloneable
+{
+    /**
+     * Initial length of the slot arrays (unless capacity is smaller).
+     */
+    private static final int INITIAL_ARRAY_SIZE = 8;
+
+    /**
+     * Source of Item names.
+     */
+    private ItemCatalog catalog;
+
+    /**
+     * Item id stored in each slot.
+     */
+    private int[] ids;
+
+    /**
+     * Number of items stored in each slot.
+     */
+    private int[] quantities;
+
+    /**
+     * Number of slots currently in use.
+     */
+    private int size;
+
+    /**
+     * Index from Item id to slot.
+     */
+    private IntIndex slotIndex;
+
+    /**
+     * Total number of distinct Item types that can be stored.
+     */
+    private int capacity;
+
+    /**
+     * Default to an inventory with 10 slots.
+     *
+     * @param catalog source of Item names
+     */
+    public CompactInventory(ItemCatalog catalog)
+    {
+        this(catalog, Inventory.DEFAULT_SIZE);
+    }
+
+    /**
+     * Create an inventory with n slots.
+     *
+     * @param catalog source of Item names
+     * @param desiredCapacity size of the new Inventory
+     */
+    public CompactInventory(ItemCatalog catalog, int desiredCapacity)
+    {
+        final int arraySize = Math.max(0, Math.min(desiredCapacity, INITIAL_ARRAY_SIZE));
+
+        this.catalog    = catalog;
+        this.ids        = new int[arraySize];
+        this.quantities = new int[arraySize];
+        this.size       = 0;
+        this.slotIndex  = new IntIndex();
+        this.capacity   = desiredCapacity;
+    }
+
+    /**
+     * Determine the number of slots currently in use.
+     */
+    public int utilizedSlots()
+    {
+        return this.size;
+    }
+
+    /**
+     * Determine the number of empty (unused) slots.
+     */
+    public int emptySlots()
+    {
+        return this.totalSlots() - this.utilizedSlots();
+    }
+
+    /**
+     * Retrieve the capacity (number of distinct types of items) that this
+     * inventory can store.
+     */
+    public int totalSlots()
+    {
+        return this.capacity;
+    }
+
+    /**
+     * Determine if the inventory is considered full.
+     *
+     * @return true if the current size is equal to capacity
+     */
+    public boolean isFull()
+    {
+        return this.utilizedSlots() == this.totalSlots();
+    }
+
+    /**
+     * Determine if the inventory is empty.
+     *
+     * @return true if current size is zero
+     */
+    public boolean isEmpty()
+    {
+        return this.size == 0;
+    }
+
+    /**
+     * Look up the slot holding a matching ItemStack.
+     *
+     * @param key stack for which the search is being conducted
+     *
+     * @return copy of the matching stack if one was found and `null`
+     *     otherwise
+     */
+    public ItemStack findMatchingItemStack(ItemStack key)
+    {
+        final int slot = this.slotIndex.get(key.getItem().getID());
+
+        if (slot == IntIndex.ABSENT) {
+            return null;
+        }
+
+        return this.stackAt(slot);
+    }
+
+    /**
+     * Append a stack to the next free slot.
+     *
+     * @param toAdd stack to store
+     *
+     * @throws IllegalArgumentException if the Item is not in the catalog
+     */
+    public void addItemStackNoCheck(ItemStack toAdd)
+    {
+        this.appendSlot(this.requireKnown(toAdd.getItem().getID()), toAdd.size());
+    }
+
+    /**
+     * Add one or more items to the inventory list.
+     *
+     * @param stack new stack of items to add
+     *
+     * @return true if *stack* was added and false otherwise
+     *
+     * @throws IllegalArgumentException if the Item is not in the catalog
+     */
+    public boolean addItems(ItemStack stack)
+    {
+        return this.addItems(stack.getItem().getID(), stack.size());
+    }
+
+    /**
+     * Add one or more items (by id) to the inventory list.
+     *
+     * @param id id of the Item to add
+     * @param qty number of items to add
+     *
+     * @return true if the items were added and false otherwise
+     *
+     * @throws IllegalArgumentException if the Item is not in the catalog
+     */
+    public boolean addItems(int id, int qty)
+    {
+        this.requireKnown(id);
+
+        final int slot = this.slotIndex.get(id);
+
+        // All Items are stackable--merge into the existing slot
+        if (slot != IntIndex.ABSENT) {
+            this.quantities[slot] += qty;
+
+            return true;
+        }
+
+        if (this.size < this.capacity) {
+            this.appendSlot(id, qty);
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Retrieve the Item id stored in a slot.
+     *
+     * @param slot position (0 to utilizedSlots() - 1)
+     */
+    public int idAt(int slot)
+    {
+        this.checkSlot(slot);
+
+        return this.ids[slot];
+    }
+
+    /**
+     * Retrieve the quantity stored in a slot.
+     *
+     * @param slot position (0 to utilizedSlots() - 1)
+     */
+    public int quantityAt(int slot)
+    {
+        this.checkSlot(slot);
+
+        return this.quantities[slot];
+    }
+
+    /**
+     * Visit every slot (in order) as an Item id and quantity. No ItemStack
+     * is created.
+     *
+     * @param action receives each slot
+     */
+    public void forEachSlot(SlotConsumer action)
+    {
+        final int[] slotIds = this.ids;
+        final int[] slotQuantities = this.quantities;
+        final int used = this.size;
+
+        for (int i = 0; i < used; ++i) {
+            action.accept(slotIds[i], slotQuantities[i]);
+        }
+    }
+
+    /**
+     * Create a cursor over the slots. No ItemStack is created (names are
+     * looked up only when asked for).
+     */
+    public SlotCursor cursor()
+    {
+        return new SlotCursor() {
+            private int slot = -1;
+
+            @Override
+            public boolean next()
+            {
+                if (this.slot + 1 >= CompactInventory.this.size) {
+                    this.slot = CompactInventory.this.size;
+                    return false;
+                }
+
+                ++this.slot;
+                return true;
+            }
+
+            @Override
+            public int id()
+            {
+                return CompactInventory.this.ids[this.current()];
+            }
+
+            @Override
+            public int quantity()
+            {
+                return CompactInventory.this.quantities[this.current()];
+            }
+
+            @Override
+            public String name()
+            {
+                return CompactInventory.this.nameOf(this.id());
+            }
+
+            @Override
+            public void reset()
+            {
+                this.slot = -1;
+            }
+
+            private int current()
+            {
+                if (this.slot < 0 || this.slot >= CompactInventory.this.size) {
+                    throw new IllegalStateException("cursor is not on a slot");
+                }
+
+                return this.slot;
+            }
+        };
+    }
+
+    /**
+     * Sum the quantities in all slots.
+     */
+    public long totalQuantity()
+    {
+        return BulkScans.sum(this.quantities, this.size);
+    }
+
+    /**
+     * Count the slots holding fewer than *threshold* items.
+     *
+     * @param threshold exclusive upper bound on quantity
+     */
+    public int countSlotsBelow(int threshold)
+    {
+        return BulkScans.countBelow(this.quantities, this.size, threshold);
+    }
+
+    /**
+     * Find the slots holding fewer than *threshold* items (e.g., low stock).
+     *
+     * @param threshold exclusive upper bound on quantity
+     *
+     * @return slot positions in increasing order
+     */
+    public int[] slotsBelow(int threshold)
+    {
+        return BulkScans.indicesBelow(this.quantities, this.size, threshold);
+    }
+
+    /**
+     * Determine whether any of the given Items is stored.
+     *
+     * @param wantedIds Item ids for which to search
+     */
+    public boolean containsAny(int... wantedIds)
+    {
+        // A few ids are cheaper to look up than to scan for
+        if (wantedIds.length * 8 < this.size) {
+            for (int id : wantedIds) {
+                if (this.slotIndex.get(id) != IntIndex.ABSENT) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        return BulkScans.containsAny(this.ids, this.size, wantedIds);
+    }
+
+    /**
+     * Copy every slot into a (conventional) Inventory.
+     */
+    public Inventory toInventory()
+    {
+        Inventory inv = new Inventory(this.capacity);
+
+        for (ItemStack stack : this) {
+            inv.addItemStackNoCheck(stack);
+        }
+
+        return inv;
+    }
+
+    @Override
+    public CompactInventory clone()
+    {
+        CompactInventory copy = new CompactInventory(this.catalog, this.capacity);
+
+        copy.ids        = Arrays.copyOf(this.ids, this.ids.length);
+        copy.quantities = Arrays.copyOf(this.quantities, this.quantities.length);
+        copy.size       = this.size;
+        copy.slotIndex  = this.slotIndex.clone();
+
+        return copy;
+    }
+
+    /**
+     * Two CompactInventories are considered equal if they:
+     *
+     *   1. Have the same capacity
+     *   2. Have the same Items in the same order
+     *
+     * (Quantities are ignored--just as ItemStack.equals ignores them.)
+     */
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (!(obj instanceof CompactInventory)) {
+            return false;
+        }
+
+        CompactInventory lhs = this;
+        CompactInventory rhs = (CompactInventory) obj;
+
+        if (lhs.totalSlots() != rhs.totalSlots()) {
+            return false;
+        }
+
+        return Arrays.equals(lhs.ids, 0, lhs.size, rhs.ids, 0, rhs.size);
+    }
+
+    /**
+     * Match Inventory.hashCode for the same capacity and Items.
+     */
+    @Override
+    public int hashCode()
+    {
+        int slotsHash = 1;
+        for (int i = 0; i < this.size; ++i) {
+            slotsHash = 31 * slotsHash + this.ids[i];
+        }
+
+        return 31 * (31 + this.capacity) + slotsHash;
+    }
+
+    /**
+     * *Print* a Summary of the Inventory and all Items contained within.
+     */
+    @Override
+    public String toString()
+    {
+        StringBuilder strBld = new StringBuilder();
+        ReportRenderer.appendSummaryLine(strBld, this.utilizedSlots(), this.totalSlots());
+
+        for (int i = 0; i < this.size; ++i) {
+            ReportRenderer.appendSlotLine(strBld, this.quantities[i], this.nameOf(this.ids[i]));
+        }
+
+        return strBld.toString();
+    }
+
+    /**
+     * Iterate over copies of each slot.
+     */
+    @Override
+    public Iterator<ItemStack> iterator()
+    {
+        return new Iterator<ItemStack>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext()
+            {
+                return this.next < CompactInventory.this.size;
+            }
+
+            @Override
+            public ItemStack next()
+            {
+                if (!this.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                return CompactInventory.this.stackAt(this.next++);
+            }
+        };
+    }
+
+    /**
+     * Build an ItemStack for a slot.
+     */
+    private ItemStack stackAt(int slot)
+    {
+        return new ItemStack(this.catalog.find(this.ids[slot]), this.quantities[slot]);
+    }
+
+    /**
+     * Look up an Item name.
+     */
+    private String nameOf(int id)
+    {
+        return this.catalog.find(id).getName();
+    }
+
+    /**
+     * Append a new slot (growing the arrays if necessary).
+     */
+    private void appendSlot(int id, int qty)
+    {
+        if (this.size == this.ids.length) {
+            final int newLength = Math.max(1, 2 * this.ids.length);
+
+            this.ids        = Arrays.copyOf(this.ids, newLength);
+            this.quantities = Arrays.copyOf(this.quantities, newLength);
+        }
+
+        this.slotIndex.putIfAbsent(id, this.size);
+        this.ids[this.size]        = id;
+        this.quantities[this.size] = qty;
+        ++this.size;
+    }
+
+    /**
+     * Reject ids that are not in the catalog.
+     *
+     * @return *id*
+     */
+    private int requireKnown(int id)
+    {
+        if (!this.catalog.contains(id)) {
+            throw new IllegalArgumentException(
+                String.format("Item %d is not in the catalog", id)
+            );
+        }
+
+        return id;
+    }
+
+    /**
+     * Reject slot positions that are not in use.
+     */
+    private void checkSlot(int slot)
+    {
+        if (slot < 0 || slot >= this.size) {
+            throw new IndexOutOfBoundsException(
+                String.format("slot %d of %d", slot, this.size)
+            );
+        }
+    }
+}
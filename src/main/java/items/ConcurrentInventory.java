@@ -0,0 +1,269 @@
+package items;
+
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A ConcurrentInventory is an Inventory that any number of threads may add
+ * ItemStacks to at the same time.
+ * <p>
+ * Each slot keeps its quantity in an atomic counter, so merging into an
+ * existing slot never blocks. Claiming a new slot reserves one unit of
+ * capacity with compare-and-set, so capacity is never exceeded. Only two
+ * threads racing to add the *same* new Item id contend (briefly) for the
+ * same map bin; there is no inventory-wide lock.
+ * <p>
+ * Slots are kept in the order in which they were claimed. Reads (iteration,
+ * *toString*, ...) are weakly consistent--they may or may not reflect adds
+ * that happen while they run.
+ */
+public class ConcurrentInventory implements Iterable<ItemStack>
+{
+    /**
+     * A single slot--an Item and an atomic quantity.
+     */
+    private static final class Slot
+    {
+        final Item item;
+        final AtomicInteger quantity;
+
+        Slot(Item item, int qty)
+        {
+            this.item     = item;
+            this.quantity = new AtomicInteger(qty);
+        }
+
+        ItemStack toItemStack()
+        {
+            return new ItemStack(this.item, this.quantity.get());
+        }
+    }
+
+    /**
+     * Slots indexed by Item id.
+     */
+    private ConcurrentHashMap<Integer, Slot> slotsById;
+
+    /**
+     * Slots in the order in which they were claimed.
+     */
+    private Queue<Slot> slotOrder;
+
+    /**
+     * Number of slots reserved (claimed) so far.
+     */
+    private AtomicInteger usedSlots;
+
+    /**
+     * Total number of distinct Item types that can be stored.
+     */
+    private final int capacity;
+
+    /**
+     * Default to an inventory with 10 slots.
+     */
+    public ConcurrentInventory()
+    {
+        this(Inventory.DEFAULT_SIZE);
+    }
+
+    /**
+     * Create an inventory with n slots.
+     *
+     * @param desiredCapacity size of the new Inventory
+     */
+    public ConcurrentInventory(int desiredCapacity)
+    {
+        this.slotsById = new ConcurrentHashMap<>();
+        this.slotOrder = new ConcurrentLinkedQueue<>();
+        this.usedSlots = new AtomicInteger(0);
+        this.capacity  = desiredCapacity;
+    }
+
+    /**
+     * Determine the number of slots currently in use.
+     */
+    public int utilizedSlots()
+    {
+        return this.usedSlots.get();
+    }
+
+    /**
+     * Determine the number of empty (unused) slots.
+     */
+    public int emptySlots()
+    {
+        return this.totalSlots() - this.utilizedSlots();
+    }
+
+    /**
+     * Retrieve the capacity (number of distinct types of items) that this
+     * inventory can store.
+     */
+    public int totalSlots()
+    {
+        return this.capacity;
+    }
+
+    /**
+     * Determine if the inventory is considered full.
+     *
+     * @return true if the current size is equal to capacity
+     */
+    public boolean isFull()
+    {
+        return this.utilizedSlots() == this.totalSlots();
+    }
+
+    /**
+     * Determine if the inventory is empty.
+     *
+     * @return true if current size is zero
+     */
+    public boolean isEmpty()
+    {
+        return this.utilizedSlots() == 0;
+    }
+
+    /**
+     * Look up the slot holding a matching ItemStack.
+     *
+     * @param key stack for which the search is being conducted
+     *
+     * @return copy of the matching stack (at the time of the call) if one
+     *     was found and `null` otherwise
+     */
+    public ItemStack findMatchingItemStack(ItemStack key)
+    {
+        Slot slot = this.slotsById.get(key.getItem().getID());
+
+        if (slot == null) {
+            return null;
+        }
+
+        return slot.toItemStack();
+    }
+
+    /**
+     * Add one or more items to the inventory list. This may be called from
+     * any number of threads.
+     *
+     * @param stack new stack of items to add
+     *
+     * @return true if *stack* was added and false otherwise
+     */
+    public boolean addItems(ItemStack stack)
+    {
+        final int id  = stack.getItem().getID();
+        final int qty = stack.size();
+
+        //----------------------------------------------------------------------
+        // Fast path--merge into an existing slot (all Items are stackable)
+        //----------------------------------------------------------------------
+        Slot existing = this.slotsById.get(id);
+
+        if (existing != null) {
+            existing.quantity.addAndGet(qty);
+            return true;
+        }
+
+        //----------------------------------------------------------------------
+        // Slow path--claim a new slot. computeIfAbsent guarantees that only
+        // one thread reserves capacity for a given id.
+        //----------------------------------------------------------------------
+        final Slot fresh = new Slot(stack.getItem().toImmutable(), qty);
+
+        Slot winner = this.slotsById.computeIfAbsent(
+            id,
+            (Integer key) -> {
+                if (!this.reserveSlot()) {
+                    return null;
+                }
+
+                this.slotOrder.add(fresh);
+                return fresh;
+            }
+        );
+
+        // No room for a new Item type
+        if (winner == null) {
+            return false;
+        }
+
+        // Another thread claimed the slot first
+        if (winner != fresh) {
+            winner.quantity.addAndGet(qty);
+        }
+
+        return true;
+    }
+
+    /**
+     * Copy the current contents into a (conventional) Inventory.
+     */
+    public Inventory snapshot()
+    {
+        Inventory inv = new Inventory(this.capacity);
+
+        for (ItemStack stack : this) {
+            inv.addItemStackNoCheck(stack);
+        }
+
+        return inv;
+    }
+
+    /**
+     * *Print* a Summary of the Inventory and all Items contained within.
+     */
+    @Override
+    public String toString()
+    {
+        return this.snapshot().toString();
+    }
+
+    /**
+     * Iterate over copies of each slot (in the order slots were claimed).
+     */
+    @Override
+    public Iterator<ItemStack> iterator()
+    {
+        final Iterator<Slot> it = this.slotOrder.iterator();
+
+        return new Iterator<ItemStack>() {
+            @Override
+            public boolean hasNext()
+            {
+                return it.hasNext();
+            }
+
+            @Override
+            public ItemStack next()
+            {
+                return it.next().toItemStack();
+            }
+        };
+    }
+
+    /**
+     * Reserve one slot if any remain.
+     *
+     * @return true if a slot was reserved
+     */
+    private boolean reserveSlot()
+    {
+        while (true) {
+            final int used = this.usedSlots.get();
+
+            if (used >= this.capacity) {
+                return false;
+            }
+
+            if (this.usedSlots.compareAndSet(used, used + 1)) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package items;
+
+/**
+ * JMX view of a LatencyHistogram. All times are in nanoseconds.
+ */
+public interface HistogramMXBean
+{
+    long getCount();
+
+    long getTotalNanos();
+
+    double getMeanNanos();
+
+    long getMaxNanos();
+
+    long getP50Nanos();
+
+    long getP90Nanos();
+
+    long getP99Nanos();
+
+    long getP999Nanos();
+
+    void reset();
+}
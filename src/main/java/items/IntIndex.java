@@ -0,0 +1,152 @@
+package items;
+
+import java.util.Arrays;
+
+/**
+ * A minimal open-addressing map from int keys to non-negative int values
+ * (e.g., Item id to slot position). Keys can not be removed.
+ * <p>
+ * Unlike a HashMap&lt;Integer, Integer&gt;, no objects are created per
+ * entry.
+ */
+class IntIndex implements Cloneable
+{
+    /**
+     * Returned by *get* when a key is not present.
+     */
+    static final int ABSENT = -1;
+
+    /**
+     * Smallest table size (must be a power of two).
+     */
+    private static final int MIN_TABLE_SIZE = 8;
+
+    /**
+     * Keys (only meaningful where the matching value is not ABSENT).
+     */
+    private int[] keys;
+
+    /**
+     * Values--ABSENT marks an empty bucket.
+     */
+    private int[] values;
+
+    /**
+     * Number of keys stored.
+     */
+    private int size;
+
+    /**
+     * Create an empty index.
+     */
+    IntIndex()
+    {
+        this.allocate(MIN_TABLE_SIZE);
+    }
+
+    /**
+     * Retrieve the value stored for *key*.
+     *
+     * @return value or ABSENT
+     */
+    int get(int key)
+    {
+        final int mask = this.values.length - 1;
+
+        for (int bucket = mix(key) & mask; ; bucket = (bucket + 1) & mask) {
+            final int value = this.values[bucket];
+
+            if (value == ABSENT || this.keys[bucket] == key) {
+                return value;
+            }
+        }
+    }
+
+    /**
+     * Store *value* for *key* unless *key* is already present.
+     *
+     * @param key key to add
+     * @param value non-negative value
+     */
+    void putIfAbsent(int key, int value)
+    {
+        if (2 * (this.size + 1) > this.values.length) {
+            this.grow();
+        }
+
+        final int mask = this.values.length - 1;
+
+        for (int bucket = mix(key) & mask; ; bucket = (bucket + 1) & mask) {
+            if (this.values[bucket] == ABSENT) {
+                this.keys[bucket]   = key;
+                this.values[bucket] = value;
+                ++this.size;
+
+                return;
+            }
+
+            if (this.keys[bucket] == key) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Retrieve the number of keys.
+     */
+    int size()
+    {
+        return this.size;
+    }
+
+    @Override
+    public IntIndex clone()
+    {
+        IntIndex copy = new IntIndex();
+
+        copy.keys   = this.keys.clone();
+        copy.values = this.values.clone();
+        copy.size   = this.size;
+
+        return copy;
+    }
+
+    /**
+     * Double the table size and reinsert every key.
+     */
+    private void grow()
+    {
+        final int[] oldKeys   = this.keys;
+        final int[] oldValues = this.values;
+
+        this.allocate(2 * oldValues.length);
+
+        for (int i = 0; i < oldValues.length; ++i) {
+            if (oldValues[i] != ABSENT) {
+                this.putIfAbsent(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    /**
+     * Replace the table with an empty one.
+     */
+    private void allocate(int tableSize)
+    {
+        this.keys   = new int[tableSize];
+        this.values = new int[tableSize];
+        this.size   = 0;
+
+        Arrays.fill(this.values, ABSENT);
+    }
+
+    /**
+     * Spread the bits of a key (ids are often small and sequential).
+     */
+    private static int mix(int key)
+    {
+        final int h = key * 0x9E3779B9;
+
+        return h ^ (h >>> 16);
+    }
+}
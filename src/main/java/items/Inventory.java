@@ -2,9 +2,17 @@ package items;
 
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Map;
+import java.util.HashMap;
+import java.util.BitSet;
 
+import java.util.Collection;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * An Inventory is composed of n slots. Each slot may store only
@@ -13,6 +21,29 @@ import java.util.Objects;
  * Once all slots are filled, no additional Item types may be
  * stored. Individual slots may contain any number of the same
  * Item--if the Item is stackable.
+ * <p>
+ * An Inventory is not thread-safe. When one (writer) thread adds Items
+ * while other threads report on them, the writer calls *publishSnapshot*
+ * (e.g., after each batch) and readers use *latestSnapshot*. Readers never
+ * block the writer or see a partially applied add.
+ * <p>
+ * *clone* is copy-on-write: the copy shares slot storage with the original
+ * until either one changes. A shared ItemStack is copied the first time it
+ * is modified or handed out (by *findMatchingItemStack* or *iterator*).
+ * <p>
+ * ItemStacks handed out--and those passed to *addItems* or
+ * *addItemStackNoCheck* that become slots--are live only until the next
+ * *clone*. *clone* replaces each of them with a copy, so changing one
+ * afterwards affects neither Inventory (look the stack up again instead).
+ * Each such stack is copied once, by the first *clone* after it was handed
+ * out; every other stack is shared.
+ * <p>
+ * *stream* and *parallelStream* (and *streamAll* for many Inventories) split
+ * evenly by slot, so parallel streams use every core. Like *forEachSlot* and
+ * *cursor*, they read the slots in place--nothing is copied or handed out--so
+ * the streamed ItemStacks (which may be shared with clones) must be treated
+ * as read-only. The Inventory must not be changed while a stream over it
+ * runs.
  */
 public class Inventory implements Iterable<ItemStack>, Cloneable
 {
@@ -30,7 +61,7 @@ public class Inventory implements Iterable<ItemStack>, Cloneable
      */
     public static void mergeStacks(ItemStack lhs, ItemStack rhs)
     {
-        // Refer to the notes from Assignment 1
+        lhs.addItems(rhs.size());
     }
 
     /**
@@ -38,11 +69,58 @@ public class Inventory implements Iterable<ItemStack>, Cloneable
      */
     private List<ItemStack> slots;
 
+    /**
+     * Secondary index from Item id to position in *slots*. This must be
+     * updated every time a new ItemStack is appended.
+     */
+    private Map<Integer, Integer> slotIndex;
+
+    /**
+     * True if *slots* and *slotIndex* may be shared with a clone (and must
+     * be copied before they are changed).
+     */
+    private boolean sharesSlots;
+
+    /**
+     * Slots whose ItemStack belongs to this Inventory alone. `null` means
+     * every ItemStack does (i.e., this Inventory has never been cloned).
+     */
+    private BitSet ownedStacks;
+
+    /**
+     * Slots whose ItemStack a caller may still hold (and change)--handed
+     * out or added since the last *clone*. `null` until the first one is.
+     */
+    private BitSet handedOut;
+
     /**
      * Total number of distinct Item types that can be stored.
      */
     private int capacity;
 
+    /**
+     * Number of changes so far--successful adds (merges and new slots) and
+     * stacks handed out (which a caller may change).
+     */
+    private long modCount;
+
+    /**
+     * Most recently published read-only copy (`null` until the first
+     * publishSnapshot).
+     */
+    private volatile InventorySnapshot published;
+
+    /**
+     * Index to which every successful add is reported (`null` if this
+     * Inventory is not registered with one).
+     */
+    private InventoryIndex index;
+
+    /**
+     * Handle of this Inventory within *index*.
+     */
+    private int indexHandle;
+
     /**
      * Default to an inventory with 10 slots.
      */
@@ -58,8 +136,11 @@ public class Inventory implements Iterable<ItemStack>, Cloneable
      */
     public Inventory(int desiredCapacity)
     {
-        this.slots    = new ArrayList<>();
-        this.capacity = desiredCapacity;
+        this.slots       = new ArrayList<>();
+        this.slotIndex   = new HashMap<>();
+        this.sharesSlots = false;
+        this.ownedStacks = null;
+        this.capacity    = desiredCapacity;
     }
 
     /**
@@ -94,8 +175,7 @@ public class Inventory implements Iterable<ItemStack>, Cloneable
      */
     public boolean isFull()
     {
-        // Replace the next line
-        return false;
+        return this.utilizedSlots() == this.totalSlots();
     }
 
     /**
@@ -109,8 +189,8 @@ public class Inventory implements Iterable<ItemStack>, Cloneable
     }
 
     /**
-     * Search through all slots (Nodes in the LinkedList) and look for a
-     * matching ItemStack.
+     * Look up the slot holding a matching ItemStack (by Item id) using the
+     * slot index instead of a linear search through all slots.
      *
      * @param key stack for which the search is being conducted
      *
@@ -118,19 +198,68 @@ public class Inventory implements Iterable<ItemStack>, Cloneable
      */
     public ItemStack findMatchingItemStack(ItemStack key)
     {
-        // Adapt the logic from Assignment 1
+        Integer position = this.slotIndex.get(key.getItem().getID());
+
+        if (position == null) {
+            return null;
+        }
+
+        return this.handOut(position);
+    }
+
+    /**
+     * Look up the (unshared) ItemStack matching *key* for use within this
+     * Inventory--unlike *findMatchingItemStack*, it is not handed out.
+     *
+     * @return matching stack if one was found and `null` otherwise
+     */
+    private ItemStack matchingStack(ItemStack key)
+    {
+        Integer position = this.slotIndex.get(key.getItem().getID());
+
+        if (position == null) {
+            return null;
+        }
 
-        return null;
+        return this.ownStack(position);
     }
 
     /**
-     * This is the standard Linked List append operation from Review 01
+     * Append a stack to the next free slot and record its position in the
+     * slot index. *toAdd* itself is stored--changing it changes the
+     * Inventory (until the next *clone*).
      *
      * @param toAdd data that we want to store in a Node and add to the list
      */
     public void addItemStackNoCheck(ItemStack toAdd)
     {
-        // Add the missing (one) line by using `this.slots.add(????)`
+        this.appendSlot(toAdd);
+    }
+
+    /**
+     * Append a stack passed in by a caller (who may still hold it).
+     *
+     * @param stored stack to store
+     *
+     * @return *stored*
+     */
+    private ItemStack appendSlot(ItemStack stored)
+    {
+        this.ownSlots();
+
+        if (this.ownedStacks != null) {
+            this.ownedStacks.set(this.slots.size());
+        }
+
+        this.markHandedOut(this.slots.size());
+
+        this.slotIndex.putIfAbsent(stored.getItem().getID(), this.slots.size());
+        this.slots.add(stored);
+        ++this.modCount;
+
+        this.reportAdded(stored.getItem().getID(), stored.size(), true);
+
+        return stored;
     }
 
     /**
@@ -142,13 +271,19 @@ public class Inventory implements Iterable<ItemStack>, Cloneable
      */
     public boolean addItems(ItemStack stack)
     {
-        ItemStack match = this.findMatchingItemStack(stack);
+        Metrics.ADDS.increment();
+
+        ItemStack match = this.matchingStack(stack);
 
         // if a match was found
         if (match != null) {
             // If the Item is stackable, add it to the ItemStack
             if (match.permitsStacking()) {
                 mergeStacks(match, stack);
+                ++this.modCount;
+                Metrics.MERGES.increment();
+
+                this.reportAdded(match.getItem().getID(), stack.size(), false);
 
                 return true;
             }
@@ -156,18 +291,314 @@ public class Inventory implements Iterable<ItemStack>, Cloneable
 
         if (this.slots.size() < capacity) {
             this.addItemStackNoCheck(stack);
+            Metrics.NEW_SLOTS.increment();
+
             return true;
         }
 
+        Metrics.DISCARDS.increment();
+
         return false;
     }
 
+    /**
+     * Determine whether *addItems* would store a stack--without adding it
+     * (or handing out anything).
+     *
+     * @param stack stack that might be added
+     *
+     * @return true if *addItems(stack)* would return true
+     */
+    public boolean accepts(ItemStack stack)
+    {
+        Integer position = this.slotIndex.get(stack.getItem().getID());
+
+        if (position != null && this.slots.get(position).permitsStacking()) {
+            return true;
+        }
+
+        return this.slots.size() < this.capacity;
+    }
+
+    /**
+     * Add a batch of stacks. The outcome is exactly that of calling
+     * *addItems* on each stack in order, but stacks of the same Item are
+     * combined first so that each distinct Item is looked up only once.
+     *
+     * @param stacks new stacks of items to add (in order)
+     *
+     * @return one entry per stack--true if that stack was added and false
+     *     otherwise
+     */
+    public boolean[] addItems(List<ItemStack> stacks)
+    {
+        final int numStacks = stacks.size();
+
+        //----------------------------------------------------------------------
+        // Group the stacks by Item id (in order of first appearance) and look
+        // up each group once.
+        //----------------------------------------------------------------------
+        IntIndex groupById   = new IntIndex();
+        int[] groupOf        = new int[numStacks];
+        int[] leaders        = new int[numStacks];
+        int[] totals         = new int[numStacks];
+        ItemStack[] matches  = new ItemStack[numStacks];
+        int numGroups        = 0;
+        boolean isSequential = false;
+
+        for (int i = 0; i < numStacks; ++i) {
+            final ItemStack stack = stacks.get(i);
+            final int id = stack.getItem().getID();
+
+            int group = groupById.get(id);
+            if (group == IntIndex.ABSENT) {
+                group = numGroups++;
+                groupById.putIfAbsent(id, group);
+
+                leaders[group] = i;
+                matches[group] = this.matchingStack(stack);
+            }
+
+            groupOf[i] = group;
+            totals[group] += stack.size();
+
+            // Fall back to one-at-a-time adds if merging could behave
+            // differently--non-stackable Items or a stack that is (or
+            // will become) the stored slot.
+            final ItemStack match = matches[group];
+            isSequential = isSequential
+                || !stack.permitsStacking()
+                || (match != null && (!match.permitsStacking() || match == stack))
+                || (i != leaders[group] && stack == stacks.get(leaders[group]));
+        }
+
+        boolean[] stored = new boolean[numStacks];
+
+        if (isSequential) {
+            for (int i = 0; i < numStacks; ++i) {
+                stored[i] = this.addItems(stacks.get(i));
+            }
+
+            return stored;
+        }
+
+        //----------------------------------------------------------------------
+        // Apply each group--merge, new slot, or discard
+        //----------------------------------------------------------------------
+        boolean[] groupStored = new boolean[numGroups];
+
+        for (int group = 0; group < numGroups; ++group) {
+            final ItemStack match = matches[group];
+
+            if (match != null) {
+                match.addItems(totals[group]);
+                groupStored[group] = true;
+
+                this.reportAdded(match.getItem().getID(), totals[group], false);
+            }
+            else if (this.slots.size() < capacity) {
+                final ItemStack leader = stacks.get(leaders[group]);
+                final int remainder = totals[group] - leader.size();
+
+                this.appendSlot(leader).addItems(remainder);
+                groupStored[group] = true;
+
+                this.reportAdded(leader.getItem().getID(), remainder, false);
+            }
+        }
+
+        int merges = 0;
+        int newSlots = 0;
+
+        for (int i = 0; i < numStacks; ++i) {
+            stored[i] = groupStored[groupOf[i]];
+
+            // Count one modification per stored stack (as addItems would).
+            // addItemStackNoCheck already counted each group leader.
+            if (stored[i] && (matches[groupOf[i]] != null || i != leaders[groupOf[i]])) {
+                ++this.modCount;
+                ++merges;
+            }
+            else if (stored[i]) {
+                ++newSlots;
+            }
+        }
+
+        Metrics.ADDS.add(numStacks);
+        Metrics.MERGES.add(merges);
+        Metrics.NEW_SLOTS.add(newSlots);
+        Metrics.DISCARDS.add(numStacks - merges - newSlots);
+
+        return stored;
+    }
+
+    /**
+     * Register with an InventoryIndex (called by InventoryIndex.register).
+     *
+     * @param target index to which adds will be reported
+     * @param handle handle assigned by *target*
+     *
+     * @throws IllegalStateException if already registered with an index
+     */
+    void attachIndex(InventoryIndex target, int handle)
+    {
+        if (this.index != null) {
+            throw new IllegalStateException("Inventory is already indexed");
+        }
+
+        this.index       = target;
+        this.indexHandle = handle;
+    }
+
+    /**
+     * Report a successful add to the index (if any).
+     *
+     * @param itemId id of the Item added
+     * @param quantity number of Items added
+     * @param newSlot true if the Items were stored in a new slot
+     */
+    private void reportAdded(int itemId, int quantity, boolean newSlot)
+    {
+        if (this.index != null && (quantity != 0 || newSlot)) {
+            this.index.added(this.indexHandle, itemId, quantity, newSlot);
+        }
+    }
+
+    /**
+     * Publish an immutable copy of the current state for readers on other
+     * threads. This must be called by the thread that adds Items. If
+     * nothing has changed since the last call, the previous snapshot is
+     * kept; otherwise every slot is copied (O(n) on the calling thread).
+     * <p>
+     * Handing out a stack (*findMatchingItemStack* or *iterator*) counts as
+     * a change, so the usual "look up, change, publish" is always picked up.
+     * A change made through a stack handed out *before* the last publish is
+     * not detected--look the stack up again before changing it.
+     *
+     * @return the published snapshot
+     */
+    public InventorySnapshot publishSnapshot()
+    {
+        InventorySnapshot current = this.published;
+
+        if (current == null || current.version() != this.modCount) {
+            current = new InventorySnapshot(this.slots, this.capacity, this.modCount);
+            this.published = current;
+        }
+
+        return current;
+    }
+
+    /**
+     * Retrieve the most recently published snapshot. This may be called
+     * from any thread and never blocks.
+     *
+     * @return latest snapshot or `null` if none has been published
+     */
+    public InventorySnapshot latestSnapshot()
+    {
+        return this.published;
+    }
+
+    /**
+     * Create a copy of this Inventory. Both Inventories share slot storage
+     * until one of them changes (copy-on-write). Only the stacks handed out
+     * (or added) since the last *clone* are copied--they are detached from
+     * whoever still holds them--so cloning again right away takes constant
+     * time.
+     */
     @Override
     public Inventory clone()
     {
+        // Detach every stack a caller may still hold
+        if (this.handedOut != null && !this.handedOut.isEmpty()) {
+            this.ownSlots();
+
+            for (int pos = this.handedOut.nextSetBit(0);
+                pos >= 0;
+                pos = this.handedOut.nextSetBit(pos + 1)) {
+                this.slots.set(pos, this.slots.get(pos).clone());
+            }
+
+            this.handedOut.clear();
+        }
+
         Inventory copy = new Inventory(this.totalSlots());
 
-        // Add the missing copy logic (loop)
+        copy.slots       = this.slots;
+        copy.slotIndex   = this.slotIndex;
+        copy.sharesSlots = true;
+        copy.ownedStacks = new BitSet();
+
+        // Every existing stack is now shared by both Inventories
+        this.sharesSlots = true;
+        this.ownedStacks = new BitSet();
+
+        return copy;
+    }
+
+    /**
+     * Make sure *slots* and *slotIndex* belong to this Inventory alone.
+     * Only references are copied--not the ItemStacks themselves.
+     */
+    private void ownSlots()
+    {
+        if (this.sharesSlots) {
+            this.slots       = new ArrayList<>(this.slots);
+            this.slotIndex   = new HashMap<>(this.slotIndex);
+            this.sharesSlots = false;
+        }
+    }
+
+    /**
+     * Claim the ItemStack in a slot and record that it has been handed out
+     * (so that *clone* detaches it).
+     *
+     * @param position slot to hand out
+     *
+     * @return the (unshared) ItemStack in the slot
+     */
+    private ItemStack handOut(int position)
+    {
+        this.markHandedOut(position);
+        ++this.modCount;
+
+        return this.ownStack(position);
+    }
+
+    /**
+     * Record that a caller may hold the ItemStack in a slot.
+     *
+     * @param position slot whose stack escaped
+     */
+    private void markHandedOut(int position)
+    {
+        if (this.handedOut == null) {
+            this.handedOut = new BitSet();
+        }
+
+        this.handedOut.set(position);
+    }
+
+    /**
+     * Make sure the ItemStack in a slot belongs to this Inventory alone
+     * (copying it if necessary).
+     *
+     * @param position slot to claim
+     *
+     * @return the (unshared) ItemStack in the slot
+     */
+    private ItemStack ownStack(int position)
+    {
+        if (this.ownedStacks == null || this.ownedStacks.get(position)) {
+            return this.slots.get(position);
+        }
+
+        this.ownSlots();
+
+        ItemStack copy = this.slots.get(position).clone();
+        this.slots.set(position, copy);
+        this.ownedStacks.set(position);
 
         return copy;
     }
@@ -207,21 +638,179 @@ public class Inventory implements Iterable<ItemStack>, Cloneable
     @Override
     public String toString()
     {
-        String summaryLine = String.format(
-            " -Used %d of %d slots%n", this.utilizedSlots(), this.totalSlots()
-        );
+        return this.renderTo(new StringBuilder()).toString();
+    }
 
-        StringBuilder strBld = new StringBuilder();
-        strBld.append(summaryLine);
+    /**
+     * Append the Summary (i.e., *toString*) to an existing buffer.
+     *
+     * @param out destination
+     *
+     * @return out
+     */
+    StringBuilder renderTo(StringBuilder out)
+    {
+        ReportRenderer.appendSummaryLine(out, this.utilizedSlots(), this.totalSlots());
 
-        // Add the missing loop
+        for (ItemStack stack : this.slots) {
+            ReportRenderer.appendSlotLine(out, stack.size(), stack.getItem().getName());
+        }
 
-        return strBld.toString();
+        return out;
     }
 
+    /**
+     * Iterate over the slots. Each ItemStack is claimed (unshared) as it is
+     * reached, so changing it never affects a clone.
+     */
     @Override
     public Iterator<ItemStack> iterator()
     {
-        return this.slots.iterator();
+        return new Iterator<ItemStack>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext()
+            {
+                return this.next < Inventory.this.slots.size();
+            }
+
+            @Override
+            public ItemStack next()
+            {
+                if (!this.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                return Inventory.this.handOut(this.next++);
+            }
+        };
+    }
+
+    /**
+     * Visit every slot (in order) as an Item id and quantity. No ItemStack
+     * is created, claimed or handed out.
+     *
+     * @param action receives each slot
+     */
+    public void forEachSlot(SlotConsumer action)
+    {
+        final List<ItemStack> current = this.slots;
+        final int size = current.size();
+
+        for (int i = 0; i < size; ++i) {
+            final ItemStack stack = current.get(i);
+
+            action.accept(stack.getItem().getID(), stack.size());
+        }
+    }
+
+    /**
+     * Create a cursor over the slots. No ItemStack is created, claimed or
+     * handed out.
+     */
+    public SlotCursor cursor()
+    {
+        return new SlotCursor() {
+            private int next = 0;
+            private ItemStack current = null;
+
+            @Override
+            public boolean next()
+            {
+                if (this.next >= Inventory.this.slots.size()) {
+                    this.current = null;
+                    return false;
+                }
+
+                this.current = Inventory.this.slots.get(this.next++);
+                return true;
+            }
+
+            @Override
+            public int id()
+            {
+                return this.current().getItem().getID();
+            }
+
+            @Override
+            public int quantity()
+            {
+                return this.current().size();
+            }
+
+            @Override
+            public String name()
+            {
+                return this.current().getItem().getName();
+            }
+
+            @Override
+            public void reset()
+            {
+                this.next    = 0;
+                this.current = null;
+            }
+
+            private ItemStack current()
+            {
+                if (this.current == null) {
+                    throw new IllegalStateException("cursor is not on a slot");
+                }
+
+                return this.current;
+            }
+        };
+    }
+
+    /**
+     * Create an ORDERED, SIZED and SUBSIZED Spliterator over the slots. Each
+     * split takes half of the remaining slots. The ItemStacks are read in
+     * place (not handed out) and must not be changed.
+     */
+    @Override
+    public Spliterator<ItemStack> spliterator()
+    {
+        return this.slots.spliterator();
+    }
+
+    /**
+     * Stream the slots (in order).
+     */
+    public Stream<ItemStack> stream()
+    {
+        return StreamSupport.stream(this.spliterator(), false);
+    }
+
+    /**
+     * Stream the slots in parallel.
+     */
+    public Stream<ItemStack> parallelStream()
+    {
+        return StreamSupport.stream(this.spliterator(), true);
+    }
+
+    /**
+     * Stream the slots of many Inventories (in order). A parallel stream
+     * splits by slot count across Inventory boundaries, so it stays balanced
+     * even when a few Inventories hold most of the slots.
+     *
+     * @param inventories Inventories whose slots are streamed
+     * @param parallel true for a parallel stream
+     */
+    public static Stream<ItemStack> streamAll(
+        Collection<? extends Inventory> inventories,
+        boolean parallel
+    )
+    {
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        List<ItemStack>[] slotLists = new List[inventories.size()];
+
+        int i = 0;
+        for (Inventory inv : inventories) {
+            slotLists[i++] = inv.slots;
+        }
+
+        return StreamSupport.stream(new SlotSpliterator(slotLists), parallel);
     }
 }
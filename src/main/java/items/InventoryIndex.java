@@ -0,0 +1,596 @@
+package items;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An InventoryIndex answers "which Inventories hold Item X (and how many)"
+ * and reports aggregate statistics without scanning every Inventory.
+ * <p>
+ * Each registered Inventory is given a handle (0, 1, 2, ...). For every
+ * Item id the index keeps a posting list--the handles of the Inventories
+ * holding that Item and the quantity each holds--plus the total across all
+ * of them. It also keeps each Inventory's slot use and total quantity, the
+ * totals across all Inventories and a histogram of fill ratios. Registered
+ * Inventories report every successful add (merge or new slot) to the index,
+ * which updates all of these in O(1), so reads never rescan.
+ * <p>
+ * Only quantities added through the Inventory (*addItems* and
+ * *addItemStackNoCheck*) are tracked. Changing an ItemStack directly (e.g.,
+ * one returned by *findMatchingItemStack*) bypasses the index.
+ * <p>
+ * Any number of threads may query the index while (other) threads add to
+ * registered Inventories. Each Inventory must still be changed by only one
+ * thread at a time (and not while it is being registered). Adds lock only
+ * the posting list of the Item added, so adds of different Items never
+ * wait for each other; per-Inventory values are written only by that
+ * Inventory's thread and the totals are LongAdders. Only *register* takes
+ * an index-wide lock. Totals and the histogram are weakly consistent--they
+ * may or may not include adds that happen while they are read.
+ */
+public final class InventoryIndex
+{
+    /**
+     * One Inventory's holding of an Item.
+     */
+    public static final class Holding
+    {
+        private final Inventory inventory;
+        private final int handle;
+        private final long quantity;
+
+        Holding(Inventory inventory, int handle, long quantity)
+        {
+            this.inventory = inventory;
+            this.handle    = handle;
+            this.quantity  = quantity;
+        }
+
+        /**
+         * Retrieve the Inventory.
+         */
+        public Inventory getInventory()
+        {
+            return this.inventory;
+        }
+
+        /**
+         * Retrieve the Inventory's handle.
+         */
+        public int getHandle()
+        {
+            return this.handle;
+        }
+
+        /**
+         * Retrieve the quantity of the Item held.
+         */
+        public long getQuantity()
+        {
+            return this.quantity;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "#" + this.handle + ": " + this.quantity;
+        }
+    }
+
+    /**
+     * Every Inventory holding one Item id (in order of first add). All
+     * access is synchronized on the Posting itself.
+     */
+    private static final class Posting
+    {
+        /**
+         * Position of each handle within *handles*.
+         */
+        final IntIndex positionOf = new IntIndex();
+
+        int[] handles = new int[4];
+        long[] quantities = new long[4];
+        int size;
+
+        /**
+         * Sum of *quantities*.
+         */
+        long total;
+
+        void add(int handle, long quantity)
+        {
+            int pos = this.positionOf.get(handle);
+
+            if (pos == IntIndex.ABSENT) {
+                if (this.size == this.handles.length) {
+                    this.handles    = Arrays.copyOf(this.handles, 2 * this.size);
+                    this.quantities = Arrays.copyOf(this.quantities, 2 * this.size);
+                }
+
+                pos = this.size++;
+                this.positionOf.putIfAbsent(handle, pos);
+                this.handles[pos] = handle;
+            }
+
+            this.quantities[pos] += quantity;
+            this.total += quantity;
+        }
+    }
+
+    /**
+     * One registered Inventory. Only the thread changing the Inventory
+     * writes *usedSlots* and *quantity*; volatile makes the values visible
+     * to readers.
+     */
+    private static final class Entry
+    {
+        final Inventory inventory;
+        final int capacity;
+        volatile int usedSlots;
+        volatile long quantity;
+
+        Entry(Inventory inventory)
+        {
+            this.inventory = inventory;
+            this.capacity  = inventory.totalSlots();
+            this.usedSlots = inventory.utilizedSlots();
+        }
+    }
+
+    /**
+     * Number of fill ratio buckets--one per 10% plus one for full
+     * Inventories.
+     */
+    public static final int FILL_BUCKETS = 11;
+
+    /**
+     * Registered Inventories (by handle). Replaced (grown) only by
+     * *register*; entries below *size* never change.
+     */
+    private volatile Entry[] entries;
+
+    /**
+     * Number of registered Inventories. Written after *entries*, so a
+     * reader that sees a size also sees every entry below it.
+     */
+    private volatile int size;
+
+    /**
+     * Number of Inventories in each fill ratio bucket.
+     */
+    private final AtomicIntegerArray fillCounts;
+
+    /**
+     * Slots in use across all Inventories.
+     */
+    private final LongAdder allUsedSlots;
+
+    /**
+     * Capacity across all Inventories.
+     */
+    private final LongAdder allCapacity;
+
+    /**
+     * Total quantity of all Items across all Inventories.
+     */
+    private final LongAdder allQuantity;
+
+    /**
+     * Posting list of each Item id.
+     */
+    private final ConcurrentHashMap<Integer, Posting> postings;
+
+    /**
+     * Held while registering (the only index-wide lock).
+     */
+    private final Object registerLock;
+
+    /**
+     * Create an empty index.
+     */
+    public InventoryIndex()
+    {
+        this.entries      = new Entry[16];
+        this.size         = 0;
+        this.fillCounts   = new AtomicIntegerArray(FILL_BUCKETS);
+        this.allUsedSlots = new LongAdder();
+        this.allCapacity  = new LongAdder();
+        this.allQuantity  = new LongAdder();
+        this.postings     = new ConcurrentHashMap<>();
+        this.registerLock = new Object();
+    }
+
+    /**
+     * Index an Inventory's current contents and track all future adds.
+     *
+     * @param inv Inventory to add to the index
+     *
+     * @return handle assigned to *inv*
+     *
+     * @throws IllegalStateException if *inv* is already registered with an
+     *     index
+     */
+    public int register(Inventory inv)
+    {
+        synchronized (this.registerLock) {
+            final int handle = this.size;
+            final Entry entry = new Entry(inv);
+
+            inv.attachIndex(this, handle);
+
+            Entry[] current = this.entries;
+            if (handle == current.length) {
+                current = Arrays.copyOf(current, 2 * handle);
+            }
+
+            current[handle] = entry;
+            this.entries = current;
+
+            this.allUsedSlots.add(entry.usedSlots);
+            this.allCapacity.add(entry.capacity);
+            this.fillCounts.incrementAndGet(fillBucketOf(entry));
+
+            inv.forEachSlot((id, qty) -> this.addQuantity(entry, handle, id, qty));
+
+            // Publish the entry (and everything above) to readers
+            this.size = handle + 1;
+
+            return handle;
+        }
+    }
+
+    /**
+     * Record an add to a registered Inventory (called by Inventory).
+     *
+     * @param handle Inventory's handle
+     * @param itemId id of the Item added
+     * @param quantity number of Items added
+     * @param newSlot true if the Items were stored in a new slot
+     */
+    void added(int handle, int itemId, int quantity, boolean newSlot)
+    {
+        final Entry entry = this.entries[handle];
+
+        if (newSlot) {
+            final int before = fillBucketOf(entry);
+            entry.usedSlots = entry.usedSlots + 1;
+            final int after = fillBucketOf(entry);
+
+            if (before != after) {
+                this.fillCounts.decrementAndGet(before);
+                this.fillCounts.incrementAndGet(after);
+            }
+
+            this.allUsedSlots.increment();
+        }
+
+        this.addQuantity(entry, handle, itemId, quantity);
+    }
+
+    private void addQuantity(Entry entry, int handle, int itemId, int quantity)
+    {
+        entry.quantity = entry.quantity + quantity;
+        this.allQuantity.add(quantity);
+
+        final Posting posting = this.postings.computeIfAbsent(itemId, (Integer id) -> new Posting());
+        synchronized (posting) {
+            posting.add(handle, quantity);
+        }
+    }
+
+    /**
+     * Retrieve the number of registered Inventories.
+     */
+    public int size()
+    {
+        return this.size;
+    }
+
+    /**
+     * Retrieve a registered Inventory.
+     *
+     * @param handle handle returned by *register*
+     *
+     * @throws IndexOutOfBoundsException if no Inventory has that handle
+     */
+    public Inventory inventory(int handle)
+    {
+        return this.entry(handle).inventory;
+    }
+
+    /**
+     * Find every Inventory holding an Item.
+     *
+     * @param itemId Item id for which to search
+     *
+     * @return one Holding per Inventory (in the order in which each first
+     *     received the Item); empty if none holds it
+     */
+    public List<Holding> holdersOf(int itemId)
+    {
+        final Posting posting = this.postings.get(itemId);
+
+        if (posting == null) {
+            return Collections.emptyList();
+        }
+
+        synchronized (posting) {
+            List<Holding> holders = new ArrayList<>(posting.size);
+            for (int i = 0; i < posting.size; ++i) {
+                holders.add(this.holding(posting, i));
+            }
+
+            return holders;
+        }
+    }
+
+    /**
+     * Count the Inventories holding an Item.
+     *
+     * @param itemId Item id for which to search
+     */
+    public int holderCount(int itemId)
+    {
+        final Posting posting = this.postings.get(itemId);
+
+        if (posting == null) {
+            return 0;
+        }
+
+        synchronized (posting) {
+            return posting.size;
+        }
+    }
+
+    /**
+     * Determine the quantity of an Item held by one Inventory.
+     *
+     * @param itemId Item id for which to search
+     * @param handle Inventory's handle
+     *
+     * @return quantity (0 if the Inventory does not hold the Item)
+     */
+    public long quantityIn(int itemId, int handle)
+    {
+        final Posting posting = this.postings.get(itemId);
+
+        if (posting == null) {
+            return 0;
+        }
+
+        synchronized (posting) {
+            final int pos = posting.positionOf.get(handle);
+
+            return pos == IntIndex.ABSENT ? 0 : posting.quantities[pos];
+        }
+    }
+
+    /**
+     * Determine the total quantity of an Item across all Inventories.
+     *
+     * @param itemId Item id for which to search
+     */
+    public long totalQuantity(int itemId)
+    {
+        final Posting posting = this.postings.get(itemId);
+
+        if (posting == null) {
+            return 0;
+        }
+
+        synchronized (posting) {
+            return posting.total;
+        }
+    }
+
+    /**
+     * Find the *k* Inventories holding the most of an Item.
+     *
+     * @param itemId Item id for which to search
+     * @param k maximum number of results
+     *
+     * @return up to *k* Holdings, largest quantity first (ties in the order
+     *     in which each Inventory first received the Item)
+     */
+    public List<Holding> topHolders(int itemId, int k)
+    {
+        final Posting posting = this.postings.get(itemId);
+
+        if (posting == null || k <= 0) {
+            return Collections.emptyList();
+        }
+
+        synchronized (posting) {
+            // Keep the k best positions seen so far--the worst on top
+            PriorityQueue<Integer> best = new PriorityQueue<>(
+                Math.min(k, posting.size) + 1,
+                (lhs, rhs) -> posting.quantities[lhs] != posting.quantities[rhs]
+                    ? Long.compare(posting.quantities[lhs], posting.quantities[rhs])
+                    : Integer.compare(rhs, lhs)
+            );
+
+            for (int i = 0; i < posting.size; ++i) {
+                best.add(i);
+
+                if (best.size() > k) {
+                    best.poll();
+                }
+            }
+
+            Holding[] top = new Holding[best.size()];
+            for (int i = top.length - 1; i >= 0; --i) {
+                top[i] = this.holding(posting, best.poll());
+            }
+
+            return Arrays.asList(top);
+        }
+    }
+
+    /**
+     * Determine the total quantity of all Items in one Inventory.
+     *
+     * @param handle Inventory's handle
+     *
+     * @throws IndexOutOfBoundsException if no Inventory has that handle
+     */
+    public long quantityOf(int handle)
+    {
+        return this.entry(handle).quantity;
+    }
+
+    /**
+     * Determine the total quantity of all Items across all Inventories.
+     */
+    public long totalQuantity()
+    {
+        return this.allQuantity.sum();
+    }
+
+    /**
+     * Determine the number of slots in use across all Inventories.
+     */
+    public long utilizedSlots()
+    {
+        return this.allUsedSlots.sum();
+    }
+
+    /**
+     * Determine the capacity across all Inventories.
+     */
+    public long totalSlots()
+    {
+        return this.allCapacity.sum();
+    }
+
+    /**
+     * Determine the number of empty (unused) slots across all Inventories.
+     */
+    public long emptySlots()
+    {
+        return this.totalSlots() - this.utilizedSlots();
+    }
+
+    /**
+     * Count the Inventories in each fill ratio bucket. Bucket *b* (0 to 9)
+     * holds Inventories with at least b * 10% (and under (b + 1) * 10%) of
+     * their slots in use. Bucket 10 holds full Inventories.
+     *
+     * @return FILL_BUCKETS counts
+     */
+    public int[] fillHistogram()
+    {
+        int[] counts = new int[FILL_BUCKETS];
+        for (int i = 0; i < FILL_BUCKETS; ++i) {
+            counts[i] = this.fillCounts.get(i);
+        }
+
+        return counts;
+    }
+
+    /**
+     * Find the *k* fullest Inventories (by fraction of slots in use).
+     *
+     * @param k maximum number of results
+     *
+     * @return up to *k* handles, fullest first (ties in order of
+     *     registration)
+     */
+    public int[] fullest(int k)
+    {
+        if (k <= 0) {
+            return new int[0];
+        }
+
+        final int count = this.size;
+        final Entry[] current = this.entries;
+
+        // Keep the k best handles seen so far--the worst on top. Each
+        // Inventory's fill is read once, so concurrent adds can not
+        // reorder the heap under us.
+        final int[] used = new int[count];
+        for (int handle = 0; handle < count; ++handle) {
+            used[handle] = current[handle].usedSlots;
+        }
+
+        PriorityQueue<Integer> best = new PriorityQueue<>(
+            Math.min(k, count) + 1,
+            (lhs, rhs) -> {
+                final int byFill = compareFill(
+                    used[lhs], current[lhs].capacity, used[rhs], current[rhs].capacity
+                );
+
+                return byFill != 0 ? byFill : Integer.compare(rhs, lhs);
+            }
+        );
+
+        for (int handle = 0; handle < count; ++handle) {
+            best.add(handle);
+
+            if (best.size() > k) {
+                best.poll();
+            }
+        }
+
+        int[] top = new int[best.size()];
+        for (int i = top.length - 1; i >= 0; --i) {
+            top[i] = best.poll();
+        }
+
+        return top;
+    }
+
+    /**
+     * Compare two fill ratios (used / capacity) without division. An
+     * Inventory with no capacity counts as full.
+     */
+    private static int compareFill(int lhsUsed, int lhsCapacity, int rhsUsed, int rhsCapacity)
+    {
+        final long lhsNumerator = lhsCapacity <= 0 ? 1 : lhsUsed;
+        final long rhsNumerator = rhsCapacity <= 0 ? 1 : rhsUsed;
+
+        return Long.compare(
+            lhsNumerator * Math.max(1, rhsCapacity),
+            rhsNumerator * Math.max(1, lhsCapacity)
+        );
+    }
+
+    /**
+     * Determine the fill ratio bucket of an Inventory.
+     */
+    private static int fillBucketOf(Entry entry)
+    {
+        if (entry.capacity <= 0) {
+            return FILL_BUCKETS - 1;
+        }
+
+        final long bucket = (long) entry.usedSlots * (FILL_BUCKETS - 1) / entry.capacity;
+
+        return (int) Math.min(Math.max(bucket, 0), FILL_BUCKETS - 1);
+    }
+
+    /**
+     * Retrieve a registered Inventory's entry.
+     *
+     * @throws IndexOutOfBoundsException if no Inventory has that handle
+     */
+    private Entry entry(int handle)
+    {
+        Objects.checkIndex(handle, this.size);
+
+        return this.entries[handle];
+    }
+
+    private Holding holding(Posting posting, int pos)
+    {
+        final int handle = posting.handles[pos];
+
+        return new Holding(this.entries[handle].inventory, handle, posting.quantities[pos]);
+    }
+}
@@ -0,0 +1,122 @@
+package items;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Collections;
+
+import java.util.Iterator;
+
+/**
+ * An InventorySnapshot is an immutable, point-in-time copy of an
+ * Inventory. Snapshots may be read (iterated, printed, ...) from any
+ * thread without locking--and without ever seeing a partial update.
+ */
+public final class InventorySnapshot implements Iterable<ItemStack>
+{
+    /**
+     * Copies of the slots at the time of the snapshot.
+     */
+    private final List<ItemStack> slots;
+
+    /**
+     * Total number of distinct Item types that can be stored.
+     */
+    private final int capacity;
+
+    /**
+     * Modification count of the Inventory when the snapshot was taken.
+     */
+    private final long version;
+
+    /**
+     * Copy the current state of an Inventory.
+     *
+     * @param source slots to copy
+     * @param capacity total number of slots
+     * @param version modification count of *source*
+     */
+    InventorySnapshot(Iterable<ItemStack> source, int capacity, long version)
+    {
+        List<ItemStack> copies = new ArrayList<>();
+        for (ItemStack stack : source) {
+            copies.add(stack.clone());
+        }
+
+        this.slots    = Collections.unmodifiableList(copies);
+        this.capacity = capacity;
+        this.version  = version;
+    }
+
+    /**
+     * Retrieve the modification count of the Inventory when this snapshot
+     * was taken. Later snapshots have larger (or equal) versions.
+     */
+    public long version()
+    {
+        return this.version;
+    }
+
+    /**
+     * Determine the number of slots in use.
+     */
+    public int utilizedSlots()
+    {
+        return this.slots.size();
+    }
+
+    /**
+     * Determine the number of empty (unused) slots.
+     */
+    public int emptySlots()
+    {
+        return this.totalSlots() - this.utilizedSlots();
+    }
+
+    /**
+     * Retrieve the capacity (number of distinct types of items).
+     */
+    public int totalSlots()
+    {
+        return this.capacity;
+    }
+
+    /**
+     * *Print* a Summary--in exactly the same form as Inventory.toString.
+     */
+    @Override
+    public String toString()
+    {
+        StringBuilder strBld = new StringBuilder();
+        ReportRenderer.appendSummaryLine(strBld, this.utilizedSlots(), this.totalSlots());
+
+        for (ItemStack stack : this.slots) {
+            ReportRenderer.appendSlotLine(strBld, stack.size(), stack.getItem().getName());
+        }
+
+        return strBld.toString();
+    }
+
+    /**
+     * Iterate over the (read-only) slots. The ItemStacks are private
+     * copies; changing them does not change the snapshot.
+     */
+    @Override
+    public Iterator<ItemStack> iterator()
+    {
+        final Iterator<ItemStack> it = this.slots.iterator();
+
+        return new Iterator<ItemStack>() {
+            @Override
+            public boolean hasNext()
+            {
+                return it.hasNext();
+            }
+
+            @Override
+            public ItemStack next()
+            {
+                return it.next().clone();
+            }
+        };
+    }
+}
@@ -6,6 +6,10 @@ package items;
  *
  * Only one of each item can exist--i.e., no two items share the
  * same numeric id.
+ * <p>
+ * An Item may be *immutable* (e.g., the canonical instance stored in an
+ * ItemCatalog). Immutable Items can not be changed, so *clone* simply
+ * returns the same instance and any number of ItemStacks may share it.
  */
 public class Item implements Cloneable
 {
@@ -19,6 +23,22 @@ public class Item implements Cloneable
      */
     private String name;
 
+    /**
+     * True if *setID* and *setName* are not permitted.
+     */
+    private final boolean immutable;
+
+    /**
+     * Create an immutable Item.
+     *
+     * @param id unique numeric id
+     * @param nme name
+     */
+    public static Item immutable(int id, String nme)
+    {
+        return new Item(id, nme, true);
+    }
+
     /**
      * Create an Item with name = Air and stackable = true.
      */
@@ -34,8 +54,17 @@ public class Item implements Cloneable
      */
     public Item(int id, String nme)
     {
-        this.id = id;
-        this.name  = nme;
+        this(id, nme, false);
+    }
+
+    /**
+     * Create an Item that may (or may not) be changed later.
+     */
+    private Item(int id, String nme, boolean immutable)
+    {
+        this.id        = id;
+        this.name      = nme;
+        this.immutable = immutable;
     }
 
     /**
@@ -47,12 +76,15 @@ public class Item implements Cloneable
     }
 
     /**
-     * Update id.
+     * Update id. Only mutable Items may be changed.
      *
      * @param nme replacement id
+     *
+     * @throws UnsupportedOperationException if this Item is immutable
      */
     public void setID(int id)
     {
+        this.requireMutable();
         this.id = id;
     }
 
@@ -65,15 +97,42 @@ public class Item implements Cloneable
     }
 
     /**
-     * Update name.
+     * Update name. Only mutable Items may be changed.
      *
      * @param nme replacement name
+     *
+     * @throws UnsupportedOperationException if this Item is immutable
      */
     public void setName(String nme)
     {
+        this.requireMutable();
         this.name = nme;
     }
 
+    /**
+     * Determine whether this Item may be changed.
+     *
+     * @return true if *setID* and *setName* are not permitted
+     */
+    public boolean isImmutable()
+    {
+        return this.immutable;
+    }
+
+    /**
+     * Retrieve an immutable Item with the same id and name.
+     *
+     * @return this Item if it is already immutable and a new one otherwise
+     */
+    public Item toImmutable()
+    {
+        if (this.immutable) {
+            return this;
+        }
+
+        return Item.immutable(this.id, this.name);
+    }
+
     /**
      * Check for logical equivalence--based on name.
      */
@@ -95,14 +154,32 @@ public class Item implements Cloneable
     }
 
     /**
-     * Duplicate this item.
+     * Duplicate this item. Immutable Items are shared instead of copied.
      */
     @Override
     public Item clone()
     {
+        if (this.immutable) {
+            return this;
+        }
+
         return new Item(this.id, this.name);
     }
 
+    /**
+     * Reject changes to immutable Items.
+     *
+     * @throws UnsupportedOperationException if this Item is immutable
+     */
+    private void requireMutable()
+    {
+        if (this.immutable) {
+            throw new UnsupportedOperationException(
+                String.format("Item %d (%s) is immutable", this.id, this.name)
+            );
+        }
+    }
+
     /**
      * *Print* an Item.
      */
@@ -0,0 +1,154 @@
+package items;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.HashMap;
+
+import java.util.Iterator;
+
+/**
+ * An ItemCatalog is the set of all known Items, indexed by id. The catalog
+ * holds one canonical, immutable Item per id; ItemStacks built from these
+ * share them instead of cloning.
+ * <p>
+ * When the ids are (mostly) contiguous, Items are stored in a dense array
+ * indexed by (id - smallest id). Otherwise, a HashMap is used.
+ */
+public class ItemCatalog implements Iterable<Item>
+{
+    /**
+     * A dense array may be at most this many times larger than the number
+     * of Items (plus a little slack for tiny catalogs).
+     */
+    private static final int MAX_DENSE_RATIO = 2;
+
+    /**
+     * Extra room permitted in the dense array for small catalogs.
+     */
+    private static final int DENSE_SLACK = 64;
+
+    /**
+     * All known Items, sorted by id.
+     */
+    private List<Item> items;
+
+    /**
+     * Items indexed by (id - minId). This is `null` when the ids are sparse.
+     */
+    private Item[] dense;
+
+    /**
+     * Smallest id in the catalog.
+     */
+    private int minId;
+
+    /**
+     * Items indexed by id. This is `null` when *dense* is in use.
+     */
+    private Map<Integer, Item> sparse;
+
+    /**
+     * Build a catalog from a collection of Items. If two Items share an id,
+     * the first one encountered is kept.
+     *
+     * @param source Items to index
+     */
+    public ItemCatalog(Collection<Item> source)
+    {
+        this.items = new ArrayList<>(source.size());
+        for (Item item : source) {
+            this.items.add(item.toImmutable());
+        }
+
+        this.items.sort(Comparator.comparing(item -> item.getID()));
+
+        if (this.items.isEmpty()) {
+            this.dense = new Item[0];
+            return;
+        }
+
+        this.minId = this.items.get(0).getID();
+        final long span = (long) this.items.get(this.items.size() - 1).getID()
+                        - this.minId + 1;
+
+        if (span <= (long) MAX_DENSE_RATIO * this.items.size() + DENSE_SLACK) {
+            this.dense = new Item[(int) span];
+
+            for (Item item : this.items) {
+                final int offset = item.getID() - this.minId;
+
+                if (this.dense[offset] == null) {
+                    this.dense[offset] = item;
+                }
+            }
+        }
+        else {
+            this.sparse = new HashMap<>();
+
+            for (Item item : this.items) {
+                this.sparse.putIfAbsent(item.getID(), item);
+            }
+        }
+    }
+
+    /**
+     * Retrieve the (immutable) Item with the specified id.
+     *
+     * @param id unique numeric id
+     *
+     * @return matching Item if one exists and `null` otherwise
+     */
+    public Item find(int id)
+    {
+        if (this.dense == null) {
+            return this.sparse.get(id);
+        }
+
+        final long offset = (long) id - this.minId;
+
+        if (offset < 0 || offset >= this.dense.length) {
+            return null;
+        }
+
+        return this.dense[(int) offset];
+    }
+
+    /**
+     * Determine whether an Item with the specified id is known.
+     *
+     * @param id unique numeric id
+     */
+    public boolean contains(int id)
+    {
+        return this.find(id) != null;
+    }
+
+    /**
+     * Retrieve the number of Items in the catalog.
+     */
+    public int size()
+    {
+        return this.items.size();
+    }
+
+    /**
+     * Retrieve all Items (sorted by id).
+     */
+    public List<Item> asList()
+    {
+        return Collections.unmodifiableList(this.items);
+    }
+
+    /**
+     * Iterate over all Items in order of id.
+     */
+    @Override
+    public Iterator<Item> iterator()
+    {
+        return this.asList().iterator();
+    }
+}
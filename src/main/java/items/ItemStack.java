@@ -25,7 +25,8 @@ public class ItemStack implements Cloneable
     }
 
     /**
-     * Create a stack of the desired type.
+     * Create a stack of the desired type. A mutable *base* is copied; an
+     * immutable one is shared.
      *
      * @param base Item out of which the stack is composed
      */
@@ -36,7 +37,8 @@ public class ItemStack implements Cloneable
     }
 
     /**
-     * Create a stack of the desired type.
+     * Create a stack of the desired type. A mutable *base* is copied; an
+     * immutable one is shared.
      *
      * @param base Item out of which the stack is composed
      * @param qty number of items to place in the stack
@@ -121,10 +123,8 @@ public class ItemStack implements Cloneable
     @Override
     public ItemStack clone()
     {
-        ItemStack cpy = new ItemStack(this.item.clone());
-        cpy.addItems(this.quantity);
-
-        return cpy;
+        // The constructor already copies (mutable) Items
+        return new ItemStack(this.item, this.quantity);
     }
 
     /**
@@ -133,6 +133,8 @@ public class ItemStack implements Cloneable
     @Override
     public String toString()
     {
-        return String.format("(%2d) %s", this.quantity, this.item.getName());
+        return ReportRenderer.appendItemStack(
+            new StringBuilder(), this.quantity, this.item.getName()
+        ).toString();
     }
 }
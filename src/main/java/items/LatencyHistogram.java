@@ -0,0 +1,248 @@
+package items;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A LatencyHistogram records durations (in nanoseconds) in log-linear
+ * buckets, in the style of an HDR histogram: every power of two is split
+ * into 32 equal sub-buckets, so any recorded value is known to within about
+ * 3% regardless of its magnitude. Memory use is fixed (under 16 KB).
+ * <p>
+ * Any number of threads may record at once. Recording is skipped (at the
+ * cost of a single branch) while metrics are disabled.
+ *
+ * @see Metrics
+ */
+public final class LatencyHistogram implements HistogramMXBean
+{
+    /**
+     * log2 of the number of sub-buckets per power of two.
+     */
+    private static final int SUB_BITS = 5;
+
+    /**
+     * Number of sub-buckets per power of two.
+     */
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+
+    /**
+     * Enough buckets for every non-negative long.
+     */
+    private static final int BUCKET_COUNT = (Long.SIZE - SUB_BITS + 1) * SUB_COUNT;
+
+    /**
+     * Name used in reports (e.g., phase.parseInventories).
+     */
+    private final String name;
+
+    /**
+     * Number of values recorded in each bucket.
+     */
+    private final AtomicLongArray buckets;
+
+    /**
+     * Number of values recorded.
+     */
+    private final LongAdder count;
+
+    /**
+     * Sum of all values recorded.
+     */
+    private final LongAdder total;
+
+    /**
+     * Largest value recorded.
+     */
+    private final AtomicLong max;
+
+    /**
+     * Create an empty histogram.
+     *
+     * @param name name used in reports
+     */
+    LatencyHistogram(String name)
+    {
+        this.name    = name;
+        this.buckets = new AtomicLongArray(BUCKET_COUNT);
+        this.count   = new LongAdder();
+        this.total   = new LongAdder();
+        this.max     = new AtomicLong();
+    }
+
+    /**
+     * Retrieve the name used in reports.
+     */
+    public String getName()
+    {
+        return this.name;
+    }
+
+    /**
+     * Record one duration (if metrics are enabled).
+     *
+     * @param nanos duration in nanoseconds (negative values count as 0)
+     */
+    public void record(long nanos)
+    {
+        if (!Metrics.enabled) {
+            return;
+        }
+
+        final long value = Math.max(0, nanos);
+
+        this.buckets.incrementAndGet(bucketOf(value));
+        this.count.increment();
+        this.total.add(value);
+
+        long largest = this.max.get();
+        while (value > largest && !this.max.compareAndSet(largest, value)) {
+            largest = this.max.get();
+        }
+    }
+
+    /**
+     * Record the time elapsed since *startNanos* (if metrics are enabled).
+     *
+     * @param startNanos value returned by Metrics.startTimer
+     */
+    public void recordSince(long startNanos)
+    {
+        if (Metrics.enabled) {
+            this.record(System.nanoTime() - startNanos);
+        }
+    }
+
+    @Override
+    public long getCount()
+    {
+        return this.count.sum();
+    }
+
+    @Override
+    public long getTotalNanos()
+    {
+        return this.total.sum();
+    }
+
+    @Override
+    public double getMeanNanos()
+    {
+        final long n = this.getCount();
+
+        return n == 0 ? 0.0 : (double) this.getTotalNanos() / n;
+    }
+
+    @Override
+    public long getMaxNanos()
+    {
+        return this.max.get();
+    }
+
+    @Override
+    public long getP50Nanos()
+    {
+        return this.getPercentile(50.0);
+    }
+
+    @Override
+    public long getP90Nanos()
+    {
+        return this.getPercentile(90.0);
+    }
+
+    @Override
+    public long getP99Nanos()
+    {
+        return this.getPercentile(99.0);
+    }
+
+    @Override
+    public long getP999Nanos()
+    {
+        return this.getPercentile(99.9);
+    }
+
+    /**
+     * Estimate a percentile--the largest value in the bucket that holds
+     * it (never more than the largest value recorded).
+     *
+     * @param percentile 0 to 100
+     *
+     * @return estimate in nanoseconds (0 if nothing was recorded)
+     */
+    public long getPercentile(double percentile)
+    {
+        long recorded = 0;
+        for (int i = 0; i < BUCKET_COUNT; ++i) {
+            recorded += this.buckets.get(i);
+        }
+
+        if (recorded == 0) {
+            return 0;
+        }
+
+        final long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * recorded));
+        long seen = 0;
+
+        for (int i = 0; i < BUCKET_COUNT; ++i) {
+            seen += this.buckets.get(i);
+
+            if (seen >= rank) {
+                return Math.min(highestValueIn(i), this.getMaxNanos());
+            }
+        }
+
+        return this.getMaxNanos();
+    }
+
+    @Override
+    public void reset()
+    {
+        for (int i = 0; i < BUCKET_COUNT; ++i) {
+            this.buckets.set(i, 0);
+        }
+
+        this.count.reset();
+        this.total.reset();
+        this.max.set(0);
+    }
+
+    /**
+     * Determine the bucket that holds a (non-negative) value. Values below
+     * SUB_COUNT have a bucket each; larger values share a bucket with
+     * others that agree in their top SUB_BITS + 1 bits.
+     */
+    static int bucketOf(long value)
+    {
+        if (value < SUB_COUNT) {
+            return (int) value;
+        }
+
+        final int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(value)) - SUB_BITS;
+        final int top = (int) (value >>> shift);
+
+        return (shift + 1) * SUB_COUNT + (top - SUB_COUNT);
+    }
+
+    /**
+     * Determine the largest value that maps to a bucket.
+     */
+    static long highestValueIn(int bucket)
+    {
+        if (bucket < SUB_COUNT) {
+            return bucket;
+        }
+
+        final int shift = bucket / SUB_COUNT - 1;
+        final long top = SUB_COUNT + bucket % SUB_COUNT;
+
+        // The top bucket ends at Long.MAX_VALUE
+        if (shift + SUB_BITS + 1 == Long.SIZE - 1 && top == 2 * SUB_COUNT - 1) {
+            return Long.MAX_VALUE;
+        }
+
+        return ((top + 1) << shift) - 1;
+    }
+}
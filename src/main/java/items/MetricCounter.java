@@ -0,0 +1,80 @@
+package items;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A MetricCounter is a named count that any number of threads may update
+ * at once. Updates are dropped (at the cost of a single branch) while
+ * metrics are disabled.
+ *
+ * @see Metrics
+ */
+public final class MetricCounter
+{
+    /**
+     * Name used in reports (e.g., inventory.adds).
+     */
+    private final String name;
+
+    /**
+     * Current count--striped, so concurrent updates rarely contend.
+     */
+    private final LongAdder count;
+
+    /**
+     * Create a counter that starts at zero.
+     *
+     * @param name name used in reports
+     */
+    MetricCounter(String name)
+    {
+        this.name  = name;
+        this.count = new LongAdder();
+    }
+
+    /**
+     * Retrieve the name used in reports.
+     */
+    public String getName()
+    {
+        return this.name;
+    }
+
+    /**
+     * Add one (if metrics are enabled).
+     */
+    public void increment()
+    {
+        if (Metrics.enabled) {
+            this.count.increment();
+        }
+    }
+
+    /**
+     * Add *n* (if metrics are enabled).
+     *
+     * @param n amount to add
+     */
+    public void add(long n)
+    {
+        if (Metrics.enabled) {
+            this.count.add(n);
+        }
+    }
+
+    /**
+     * Retrieve the current count.
+     */
+    public long get()
+    {
+        return this.count.sum();
+    }
+
+    /**
+     * Set the count back to zero.
+     */
+    public void reset()
+    {
+        this.count.reset();
+    }
+}
@@ -0,0 +1,305 @@
+package items;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Metrics holds every counter and histogram recorded by Inventory, the
+ * inventoryList parser and the Storage driver.
+ * <p>
+ * Metrics are disabled by default (or enabled with the system property
+ * `items.metrics=true`). While disabled, every update is a single
+ * (predictable) branch on a volatile static field, so instrumented code
+ * runs at essentially full speed.
+ * <p>
+ * Current values can be read directly, as a text report (*dump*) or over
+ * JMX (*registerMBeans*).
+ */
+public final class Metrics implements MetricsMXBean
+{
+    /**
+     * True while updates are recorded. Volatile, so that *enable* (e.g.,
+     * over JMX) takes effect on threads already running hot loops.
+     */
+    static volatile boolean enabled = Boolean.getBoolean("items.metrics");
+
+    //--------------------------------------------------------------------------
+    // Inventory
+    //--------------------------------------------------------------------------
+
+    /**
+     * Stacks passed to Inventory.addItems.
+     */
+    public static final MetricCounter ADDS = new MetricCounter("inventory.adds");
+
+    /**
+     * Stacks merged into an existing slot.
+     */
+    public static final MetricCounter MERGES = new MetricCounter("inventory.merges");
+
+    /**
+     * Stacks stored in a new slot.
+     */
+    public static final MetricCounter NEW_SLOTS = new MetricCounter("inventory.newSlots");
+
+    /**
+     * Stacks discarded because the Inventory was at capacity.
+     */
+    public static final MetricCounter DISCARDS = new MetricCounter("inventory.discards");
+
+    //--------------------------------------------------------------------------
+    // inventoryList parsing
+    //--------------------------------------------------------------------------
+
+    /**
+     * Lines read from inventoryList input.
+     */
+    public static final MetricCounter LINES_PARSED = new MetricCounter("parser.lines");
+
+    /**
+     * Item lines skipped because the id is not in the catalog.
+     */
+    public static final MetricCounter UNKNOWN_IDS = new MetricCounter("parser.unknownIds");
+
+    /**
+     * Inventories built.
+     */
+    public static final MetricCounter INVENTORIES_PARSED =
+        new MetricCounter("parser.inventories");
+
+    /**
+     * Time to add one Inventory's batch of stacks.
+     */
+    public static final LatencyHistogram BATCH_ADD_TIME = new LatencyHistogram("parser.batchAdd");
+
+    //--------------------------------------------------------------------------
+    // Storage phases
+    //--------------------------------------------------------------------------
+
+    /**
+     * Time to load the itemList.
+     */
+    public static final LatencyHistogram LOAD_CATALOG_PHASE =
+        new LatencyHistogram("phase.loadCatalog");
+
+    /**
+     * Time to read the inventoryList (including the Processing Log).
+     */
+    public static final LatencyHistogram PARSE_PHASE =
+        new LatencyHistogram("phase.parseInventories");
+
+    /**
+     * Time to write the Item List and Storage Summary.
+     */
+    public static final LatencyHistogram REPORT_PHASE = new LatencyHistogram("phase.report");
+
+    private static final List<MetricCounter> COUNTERS = Arrays.asList(
+        ADDS, MERGES, NEW_SLOTS, DISCARDS, LINES_PARSED, UNKNOWN_IDS, INVENTORIES_PARSED
+    );
+
+    private static final List<LatencyHistogram> HISTOGRAMS = Arrays.asList(
+        BATCH_ADD_TIME, LOAD_CATALOG_PHASE, PARSE_PHASE, REPORT_PHASE
+    );
+
+    /**
+     * JMX domain of every registered MBean.
+     */
+    private static final String JMX_DOMAIN = "items";
+
+    /**
+     * Only instance (registered with JMX).
+     */
+    private static final Metrics INSTANCE = new Metrics();
+
+    private Metrics()
+    {
+    }
+
+    /**
+     * Determine whether updates are being recorded.
+     */
+    public static boolean enabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * Start or stop recording updates.
+     *
+     * @param on true to record updates
+     */
+    public static void enable(boolean on)
+    {
+        enabled = on;
+    }
+
+    /**
+     * Start timing something.
+     *
+     * @return start time to pass to LatencyHistogram.recordSince (0 if
+     *     metrics are disabled)
+     */
+    public static long startTimer()
+    {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Set every counter and histogram back to zero.
+     */
+    public static void resetAll()
+    {
+        COUNTERS.forEach(MetricCounter::reset);
+        HISTOGRAMS.forEach(LatencyHistogram::reset);
+    }
+
+    /**
+     * Register this class and every histogram with the platform MBean
+     * server (if not already registered).
+     *
+     * @throws JMException if registration fails
+     */
+    public static void registerMBeans()
+        throws JMException
+    {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+        ObjectName metricsName = new ObjectName(JMX_DOMAIN + ":type=Metrics");
+        if (!server.isRegistered(metricsName)) {
+            server.registerMBean(INSTANCE, metricsName);
+        }
+
+        for (LatencyHistogram histogram : HISTOGRAMS) {
+            ObjectName name = new ObjectName(
+                JMX_DOMAIN + ":type=Histogram,name=" + histogram.getName()
+            );
+
+            if (!server.isRegistered(name)) {
+                server.registerMBean(histogram, name);
+            }
+        }
+    }
+
+    /**
+     * Compute the inventoryList lines read per second of parse phase.
+     */
+    public static double linesPerSecond()
+    {
+        final long nanos = PARSE_PHASE.getTotalNanos();
+
+        return nanos == 0 ? 0.0 : LINES_PARSED.get() * 1e9 / nanos;
+    }
+
+    /**
+     * Build a text report of every counter and histogram (times are in
+     * microseconds).
+     */
+    public static String report()
+    {
+        StringBuilder out = new StringBuilder();
+        out.append("Metrics:").append(System.lineSeparator());
+
+        for (MetricCounter counter : COUNTERS) {
+            out.append(String.format(Locale.ROOT, "  %-24s %d%n", counter.getName(), counter.get()));
+        }
+
+        out.append(String.format(Locale.ROOT, "  %-24s %.1f%n", "parser.linesPerSecond", linesPerSecond()));
+
+        for (LatencyHistogram histogram : HISTOGRAMS) {
+            out.append(String.format(
+                Locale.ROOT,
+                "  %-24s count=%d mean=%.1fus p50=%.1fus p99=%.1fus max=%.1fus%n",
+                histogram.getName(),
+                histogram.getCount(),
+                histogram.getMeanNanos() / 1e3,
+                histogram.getP50Nanos() / 1e3,
+                histogram.getP99Nanos() / 1e3,
+                histogram.getMaxNanos() / 1e3
+            ));
+        }
+
+        return out.toString();
+    }
+
+    //--------------------------------------------------------------------------
+    // MetricsMXBean
+    //--------------------------------------------------------------------------
+
+    @Override
+    public boolean isEnabled()
+    {
+        return enabled();
+    }
+
+    @Override
+    public void setEnabled(boolean on)
+    {
+        enable(on);
+    }
+
+    @Override
+    public long getAdds()
+    {
+        return ADDS.get();
+    }
+
+    @Override
+    public long getMerges()
+    {
+        return MERGES.get();
+    }
+
+    @Override
+    public long getNewSlots()
+    {
+        return NEW_SLOTS.get();
+    }
+
+    @Override
+    public long getDiscards()
+    {
+        return DISCARDS.get();
+    }
+
+    @Override
+    public long getLinesParsed()
+    {
+        return LINES_PARSED.get();
+    }
+
+    @Override
+    public long getUnknownIds()
+    {
+        return UNKNOWN_IDS.get();
+    }
+
+    @Override
+    public long getInventoriesParsed()
+    {
+        return INVENTORIES_PARSED.get();
+    }
+
+    @Override
+    public double getLinesPerSecond()
+    {
+        return linesPerSecond();
+    }
+
+    @Override
+    public String dump()
+    {
+        return report();
+    }
+
+    @Override
+    public void reset()
+    {
+        resetAll();
+    }
+}
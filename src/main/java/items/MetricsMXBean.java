@@ -0,0 +1,31 @@
+package items;
+
+/**
+ * JMX view of the counters in Metrics.
+ */
+public interface MetricsMXBean
+{
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    long getAdds();
+
+    long getMerges();
+
+    long getNewSlots();
+
+    long getDiscards();
+
+    long getLinesParsed();
+
+    long getUnknownIds();
+
+    long getInventoriesParsed();
+
+    double getLinesPerSecond();
+
+    String dump();
+
+    void reset();
+}
@@ -0,0 +1,206 @@
+package items;
+
+/**
+ * An immutable, persistent map from int keys to non-negative int values,
+ * implemented as a hash array mapped trie (HAMT).
+ * <p>
+ * *put* returns a new map in O(log32 n) time, sharing every node that is
+ * not on the path to the changed key.
+ */
+final class PersistentIntMap
+{
+    /**
+     * Returned by *get* when a key is not present.
+     */
+    static final int ABSENT = -1;
+
+    /**
+     * Number of hash bits consumed per trie level.
+     */
+    private static final int BITS = 5;
+
+    /**
+     * Mask for extracting one level's index.
+     */
+    private static final int MASK = (1 << BITS) - 1;
+
+    /**
+     * The (shared) empty map.
+     */
+    private static final PersistentIntMap EMPTY = new PersistentIntMap(Node.EMPTY, 0);
+
+    /**
+     * A single key/value pair.
+     */
+    private static final class Entry
+    {
+        final int key;
+        final int value;
+
+        Entry(int key, int value)
+        {
+            this.key   = key;
+            this.value = value;
+        }
+    }
+
+    /**
+     * A trie node. Bit i of *bitmap* is set if child i is present; children
+     * are stored (in order) in *array* and are either Entry or Node.
+     */
+    private static final class Node
+    {
+        static final Node EMPTY = new Node(0, new Object[0]);
+
+        final int bitmap;
+        final Object[] array;
+
+        Node(int bitmap, Object[] array)
+        {
+            this.bitmap = bitmap;
+            this.array  = array;
+        }
+
+        int get(int hash, int key, int shift)
+        {
+            final int bit = 1 << ((hash >>> shift) & MASK);
+
+            if ((this.bitmap & bit) == 0) {
+                return ABSENT;
+            }
+
+            Object child = this.array[Integer.bitCount(this.bitmap & (bit - 1))];
+
+            if (child instanceof Node) {
+                return ((Node) child).get(hash, key, shift + BITS);
+            }
+
+            Entry entry = (Entry) child;
+            return entry.key == key ? entry.value : ABSENT;
+        }
+
+        Node put(int hash, int key, int value, int shift)
+        {
+            final int bit = 1 << ((hash >>> shift) & MASK);
+            final int idx = Integer.bitCount(this.bitmap & (bit - 1));
+
+            //------------------------------------------------------------------
+            // Empty position--insert a new entry
+            //------------------------------------------------------------------
+            if ((this.bitmap & bit) == 0) {
+                Object[] newArray = new Object[this.array.length + 1];
+                System.arraycopy(this.array, 0, newArray, 0, idx);
+                newArray[idx] = new Entry(key, value);
+                System.arraycopy(this.array, idx, newArray, idx + 1, this.array.length - idx);
+
+                return new Node(this.bitmap | bit, newArray);
+            }
+
+            //------------------------------------------------------------------
+            // Occupied--descend, replace, or split into a sub-node
+            //------------------------------------------------------------------
+            Object child = this.array[idx];
+            Object replacement;
+
+            if (child instanceof Node) {
+                replacement = ((Node) child).put(hash, key, value, shift + BITS);
+            }
+            else {
+                Entry entry = (Entry) child;
+
+                if (entry.key == key) {
+                    if (entry.value == value) {
+                        return this;
+                    }
+
+                    replacement = new Entry(key, value);
+                }
+                else {
+                    // mix is a bijection, so two keys always differ somewhere
+                    // in their hashes and the split terminates.
+                    replacement = EMPTY
+                        .put(mix(entry.key), entry.key, entry.value, shift + BITS)
+                        .put(hash, key, value, shift + BITS);
+                }
+            }
+
+            Object[] newArray = this.array.clone();
+            newArray[idx] = replacement;
+
+            return new Node(this.bitmap, newArray);
+        }
+    }
+
+    /**
+     * Root of the trie.
+     */
+    private final Node root;
+
+    /**
+     * Number of keys.
+     */
+    private final int size;
+
+    private PersistentIntMap(Node root, int size)
+    {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Retrieve the empty map.
+     */
+    static PersistentIntMap empty()
+    {
+        return EMPTY;
+    }
+
+    /**
+     * Retrieve the value stored for *key*.
+     *
+     * @return value or ABSENT
+     */
+    int get(int key)
+    {
+        return this.root.get(mix(key), key, 0);
+    }
+
+    /**
+     * Store *value* for *key* (replacing any previous value).
+     *
+     * @param key key to store
+     * @param value non-negative value
+     *
+     * @return new map
+     */
+    PersistentIntMap put(int key, int value)
+    {
+        final boolean isNew = this.get(key) == ABSENT;
+        Node newRoot = this.root.put(mix(key), key, value, 0);
+
+        if (newRoot == this.root) {
+            return this;
+        }
+
+        return new PersistentIntMap(newRoot, isNew ? this.size + 1 : this.size);
+    }
+
+    /**
+     * Retrieve the number of keys.
+     */
+    int size()
+    {
+        return this.size;
+    }
+
+    /**
+     * Spread the bits of a key. This is a bijection on int (an odd multiply
+     * followed by an xor-shift), so distinct keys have distinct hashes.
+     */
+    private static int mix(int key)
+    {
+        final int h = key * 0x9E3779B9;
+
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,281 @@
+package items;
+
+import java.util.Iterator;
+
+/**
+ * A PersistentInventory is an immutable Inventory. Adding items never
+ * changes an existing PersistentInventory--*addItems* returns a new version
+ * and every older version remains valid (and unchanged).
+ * <p>
+ * Slots are kept (in insertion order) in a persistent vector and indexed
+ * by Item id in a persistent hash trie. Both are 32-way tries, so each add
+ * copies only O(log32 n) small nodes; the rest of the structure is shared
+ * with the previous version. This makes keeping every version (e.g., for
+ * undo or for readers on other threads) cheap.
+ * <p>
+ * ItemStacks returned by *findMatchingItemStack* and *iterator* are
+ * copies--changing them does not change the inventory.
+ */
+public final class PersistentInventory implements Iterable<ItemStack>
+{
+    /**
+     * Slots in insertion order. Stored stacks are never modified.
+     */
+    private final PersistentVector<ItemStack> slots;
+
+    /**
+     * Index from Item id to position in *slots*.
+     */
+    private final PersistentIntMap slotIndex;
+
+    /**
+     * Total number of distinct Item types that can be stored.
+     */
+    private final int capacity;
+
+    /**
+     * Default to an (empty) inventory with 10 slots.
+     */
+    public PersistentInventory()
+    {
+        this(Inventory.DEFAULT_SIZE);
+    }
+
+    /**
+     * Create an (empty) inventory with n slots.
+     *
+     * @param desiredCapacity size of the new Inventory
+     */
+    public PersistentInventory(int desiredCapacity)
+    {
+        this(PersistentVector.empty(), PersistentIntMap.empty(), desiredCapacity);
+    }
+
+    private PersistentInventory(
+        PersistentVector<ItemStack> slots,
+        PersistentIntMap slotIndex,
+        int capacity
+    )
+    {
+        this.slots     = slots;
+        this.slotIndex = slotIndex;
+        this.capacity  = capacity;
+    }
+
+    /**
+     * Build a PersistentInventory with the same contents as an Inventory.
+     *
+     * @param source inventory to copy
+     */
+    public static PersistentInventory of(Inventory source)
+    {
+        PersistentInventory result = new PersistentInventory(source.totalSlots());
+
+        for (ItemStack stack : source) {
+            result = result.addItems(stack);
+        }
+
+        return result;
+    }
+
+    /**
+     * Determine the number of slots currently in use.
+     */
+    public int utilizedSlots()
+    {
+        return this.slots.size();
+    }
+
+    /**
+     * Determine the number of empty (unused) slots.
+     */
+    public int emptySlots()
+    {
+        return this.totalSlots() - this.utilizedSlots();
+    }
+
+    /**
+     * Retrieve the capacity (number of distinct types of items) that this
+     * inventory can store.
+     */
+    public int totalSlots()
+    {
+        return this.capacity;
+    }
+
+    /**
+     * Determine if the inventory is considered full.
+     *
+     * @return true if the current size is equal to capacity
+     */
+    public boolean isFull()
+    {
+        return this.utilizedSlots() == this.totalSlots();
+    }
+
+    /**
+     * Determine if the inventory is empty.
+     *
+     * @return true if current size is zero
+     */
+    public boolean isEmpty()
+    {
+        return this.utilizedSlots() == 0;
+    }
+
+    /**
+     * Search through all slots for a matching ItemStack.
+     *
+     * @param key stack for which the search is being conducted
+     *
+     * @return copy of the matching stack if one was found and `null`
+     *     otherwise
+     */
+    public ItemStack findMatchingItemStack(ItemStack key)
+    {
+        final int pos = this.slotIndex.get(key.getItem().getID());
+
+        if (pos == PersistentIntMap.ABSENT) {
+            return null;
+        }
+
+        return this.slots.get(pos).clone();
+    }
+
+    /**
+     * Add one or more items, producing a new version of the inventory.
+     *
+     * @param stack new stack of items to add
+     *
+     * @return new inventory containing *stack*, or this inventory (unchanged)
+     *     if *stack* was discarded because no slot was available
+     */
+    public PersistentInventory addItems(ItemStack stack)
+    {
+        final int id = stack.getItem().getID();
+        final int pos = this.slotIndex.get(id);
+
+        //----------------------------------------------------------------------
+        // Merge into an existing slot (all Items are stackable)
+        //----------------------------------------------------------------------
+        if (pos != PersistentIntMap.ABSENT) {
+            ItemStack existing = this.slots.get(pos);
+            ItemStack merged = new ItemStack(existing.getItem(), existing.size() + stack.size());
+
+            return new PersistentInventory(
+                this.slots.set(pos, merged), this.slotIndex, this.capacity
+            );
+        }
+
+        //----------------------------------------------------------------------
+        // Claim a new slot if one is available
+        //----------------------------------------------------------------------
+        if (this.isFull()) {
+            return this;
+        }
+
+        ItemStack fresh = new ItemStack(stack.getItem().toImmutable(), stack.size());
+
+        return new PersistentInventory(
+            this.slots.append(fresh),
+            this.slotIndex.put(id, this.slots.size()),
+            this.capacity
+        );
+    }
+
+    /**
+     * Copy the contents into a (conventional) Inventory.
+     */
+    public Inventory toInventory()
+    {
+        Inventory inv = new Inventory(this.capacity);
+
+        for (ItemStack stack : this) {
+            inv.addItemStackNoCheck(stack);
+        }
+
+        return inv;
+    }
+
+    /**
+     * Check whether this inventory is equal to another PersistentInventory
+     * (same capacity and same Items in the same order).
+     */
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (!(obj instanceof PersistentInventory)) {
+            return false;
+        }
+
+        PersistentInventory lhs = this;
+        PersistentInventory rhs = (PersistentInventory) obj;
+
+        if (lhs.totalSlots() != rhs.totalSlots()
+            || lhs.utilizedSlots() != rhs.utilizedSlots()) {
+            return false;
+        }
+
+        Iterator<ItemStack> rhsIt = rhs.slots.iterator();
+        for (ItemStack stack : lhs.slots) {
+            if (!stack.equals(rhsIt.next())) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Match Inventory.hashCode for the same capacity and Items.
+     */
+    @Override
+    public int hashCode()
+    {
+        int slotsHash = 1;
+        for (ItemStack stack : this.slots) {
+            slotsHash = 31 * slotsHash + stack.hashCode();
+        }
+
+        return 31 * (31 + this.capacity) + slotsHash;
+    }
+
+    /**
+     * *Print* a Summary of the Inventory and all Items contained within.
+     */
+    @Override
+    public String toString()
+    {
+        StringBuilder strBld = new StringBuilder();
+        ReportRenderer.appendSummaryLine(strBld, this.utilizedSlots(), this.totalSlots());
+
+        for (ItemStack stack : this.slots) {
+            ReportRenderer.appendSlotLine(strBld, stack.size(), stack.getItem().getName());
+        }
+
+        return strBld.toString();
+    }
+
+    /**
+     * Iterate over copies of each slot (in insertion order).
+     */
+    @Override
+    public Iterator<ItemStack> iterator()
+    {
+        final Iterator<ItemStack> it = this.slots.iterator();
+
+        return new Iterator<ItemStack>() {
+            @Override
+            public boolean hasNext()
+            {
+                return it.hasNext();
+            }
+
+            @Override
+            public ItemStack next()
+            {
+                return it.next().clone();
+            }
+        };
+    }
+}
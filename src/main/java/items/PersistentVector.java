@@ -0,0 +1,287 @@
+package items;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An immutable, persistent vector--a 32-way trie of elements plus a
+ * "tail" block holding the last (up to) 32 elements.
+ * <p>
+ * *set* and *append* return a new vector in O(log32 n) time; everything
+ * other than the path to the changed element is shared with the original.
+ *
+ * @param <T> element type
+ */
+final class PersistentVector<T> implements Iterable<T>
+{
+    /**
+     * Number of index bits consumed per trie level.
+     */
+    private static final int BITS = 5;
+
+    /**
+     * Number of children (or elements) per node.
+     */
+    private static final int WIDTH = 1 << BITS;
+
+    /**
+     * Mask for extracting one level's index.
+     */
+    private static final int MASK = WIDTH - 1;
+
+    /**
+     * The (shared) empty vector.
+     */
+    @SuppressWarnings("rawtypes")
+    private static final PersistentVector EMPTY =
+        new PersistentVector<>(0, BITS, new Object[WIDTH], new Object[0]);
+
+    /**
+     * Number of elements.
+     */
+    private final int size;
+
+    /**
+     * Number of index bits above the leaves (i.e., BITS * depth).
+     */
+    private final int shift;
+
+    /**
+     * Root of the trie (always WIDTH long).
+     */
+    private final Object[] root;
+
+    /**
+     * Last (up to) WIDTH elements.
+     */
+    private final Object[] tail;
+
+    private PersistentVector(int size, int shift, Object[] root, Object[] tail)
+    {
+        this.size  = size;
+        this.shift = shift;
+        this.root  = root;
+        this.tail  = tail;
+    }
+
+    /**
+     * Retrieve the empty vector.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> PersistentVector<T> empty()
+    {
+        return (PersistentVector<T>) EMPTY;
+    }
+
+    /**
+     * Retrieve the number of elements.
+     */
+    int size()
+    {
+        return this.size;
+    }
+
+    /**
+     * Retrieve an element.
+     *
+     * @param index position (0 to size - 1)
+     */
+    @SuppressWarnings("unchecked")
+    T get(int index)
+    {
+        return (T) this.leafFor(index)[index & MASK];
+    }
+
+    /**
+     * Replace an element.
+     *
+     * @param index position (0 to size - 1)
+     * @param value replacement
+     *
+     * @return new vector
+     */
+    PersistentVector<T> set(int index, T value)
+    {
+        this.checkIndex(index);
+
+        if (index >= this.tailOffset()) {
+            Object[] newTail = this.tail.clone();
+            newTail[index & MASK] = value;
+
+            return new PersistentVector<>(this.size, this.shift, this.root, newTail);
+        }
+
+        return new PersistentVector<>(
+            this.size, this.shift, setInNode(this.shift, this.root, index, value), this.tail
+        );
+    }
+
+    /**
+     * Add an element to the end.
+     *
+     * @param value new element
+     *
+     * @return new vector
+     */
+    PersistentVector<T> append(T value)
+    {
+        //----------------------------------------------------------------------
+        // Room in the tail
+        //----------------------------------------------------------------------
+        if (this.size - this.tailOffset() < WIDTH) {
+            Object[] newTail = Arrays.copyOf(this.tail, this.tail.length + 1);
+            newTail[this.tail.length] = value;
+
+            return new PersistentVector<>(this.size + 1, this.shift, this.root, newTail);
+        }
+
+        //----------------------------------------------------------------------
+        // Push the full tail into the trie (growing a level if necessary)
+        //----------------------------------------------------------------------
+        Object[] newRoot;
+        int newShift = this.shift;
+
+        if ((this.size >>> BITS) > (1 << this.shift)) {
+            newRoot = new Object[WIDTH];
+            newRoot[0] = this.root;
+            newRoot[1] = newPath(this.shift, this.tail);
+            newShift += BITS;
+        }
+        else {
+            newRoot = this.pushTail(this.shift, this.root, this.tail);
+        }
+
+        return new PersistentVector<>(this.size + 1, newShift, newRoot, new Object[] {value});
+    }
+
+    @Override
+    public Iterator<T> iterator()
+    {
+        return new Iterator<T>() {
+            private int next = 0;
+            private Object[] leaf = null;
+
+            @Override
+            public boolean hasNext()
+            {
+                return this.next < PersistentVector.this.size;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T next()
+            {
+                if (!this.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                // Look up each leaf once rather than once per element
+                if ((this.next & MASK) == 0 || this.leaf == null) {
+                    this.leaf = PersistentVector.this.leafFor(this.next);
+                }
+
+                return (T) this.leaf[this.next++ & MASK];
+            }
+        };
+    }
+
+    /**
+     * Index of the first element stored in the tail.
+     */
+    private int tailOffset()
+    {
+        if (this.size < WIDTH) {
+            return 0;
+        }
+
+        return ((this.size - 1) >>> BITS) << BITS;
+    }
+
+    /**
+     * Find the leaf (or tail) block that holds an element.
+     */
+    private Object[] leafFor(int index)
+    {
+        this.checkIndex(index);
+
+        if (index >= this.tailOffset()) {
+            return this.tail;
+        }
+
+        Object[] node = this.root;
+        for (int level = this.shift; level > 0; level -= BITS) {
+            node = (Object[]) node[(index >>> level) & MASK];
+        }
+
+        return node;
+    }
+
+    /**
+     * Copy the path from *node* to an element, replacing the element.
+     */
+    private static Object[] setInNode(int level, Object[] node, int index, Object value)
+    {
+        Object[] copy = node.clone();
+
+        if (level == 0) {
+            copy[index & MASK] = value;
+        }
+        else {
+            final int child = (index >>> level) & MASK;
+            copy[child] = setInNode(level - BITS, (Object[]) node[child], index, value);
+        }
+
+        return copy;
+    }
+
+    /**
+     * Copy the rightmost path from *parent*, attaching *tailNode* as the new
+     * rightmost leaf.
+     */
+    private Object[] pushTail(int level, Object[] parent, Object[] tailNode)
+    {
+        final int child = ((this.size - 1) >>> level) & MASK;
+        Object[] copy = parent.clone();
+
+        if (level == BITS) {
+            copy[child] = tailNode;
+        }
+        else {
+            Object[] existing = (Object[]) parent[child];
+
+            copy[child] = existing != null
+                ? this.pushTail(level - BITS, existing, tailNode)
+                : newPath(level - BITS, tailNode);
+        }
+
+        return copy;
+    }
+
+    /**
+     * Build a chain of single-child nodes leading down to *node*.
+     */
+    private static Object[] newPath(int level, Object[] node)
+    {
+        if (level == 0) {
+            return node;
+        }
+
+        Object[] path = new Object[WIDTH];
+        path[0] = newPath(level - BITS, node);
+
+        return path;
+    }
+
+    /**
+     * Reject indices outside 0 to size - 1.
+     */
+    private void checkIndex(int index)
+    {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException(
+                String.format("index %d of %d", index, this.size)
+            );
+        }
+    }
+}
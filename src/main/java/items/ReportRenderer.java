@@ -0,0 +1,164 @@
+package items;
+
+/**
+ * Render the lines of the Storage report into a (reusable) StringBuilder.
+ * <p>
+ * Every method produces exactly the text of the String.format call noted
+ * in its documentation, but pads integers by hand--no format string is
+ * parsed and no intermediate Strings are created.
+ */
+public final class ReportRenderer
+{
+    /**
+     * Platform line separator (i.e., what `%n` produces).
+     */
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private ReportRenderer()
+    {
+    }
+
+    /**
+     * Append an int right-aligned in a field--i.e., `%{width}d`.
+     *
+     * @param out destination
+     * @param value number to append
+     * @param width minimum number of characters
+     *
+     * @return out
+     */
+    public static StringBuilder appendPadded(StringBuilder out, int value, int width)
+    {
+        for (int pad = width - decimalLength(value); pad > 0; --pad) {
+            out.append(' ');
+        }
+
+        return out.append(value);
+    }
+
+    /**
+     * Append a stack--i.e., `String.format("(%2d) %s", quantity, name)`.
+     *
+     * @param out destination
+     * @param quantity size of the stack
+     * @param name name of the stack's Item
+     *
+     * @return out
+     */
+    public static StringBuilder appendItemStack(StringBuilder out, int quantity, String name)
+    {
+        out.append('(');
+        appendPadded(out, quantity, 2);
+
+        return out.append(") ").append(name);
+    }
+
+    /**
+     * Append the first line of an Inventory summary--i.e.,
+     * `String.format(" -Used %d of %d slots%n", used, total)`.
+     *
+     * @param out destination
+     * @param used number of slots in use
+     * @param total capacity
+     *
+     * @return out
+     */
+    public static StringBuilder appendSummaryLine(StringBuilder out, int used, int total)
+    {
+        return out.append(" -Used ")
+                  .append(used)
+                  .append(" of ")
+                  .append(total)
+                  .append(" slots")
+                  .append(LINE_SEPARATOR);
+    }
+
+    /**
+     * Append one slot of an Inventory summary--i.e.,
+     * `String.format("  %s%n", stack)`.
+     *
+     * @param out destination
+     * @param quantity size of the stack
+     * @param name name of the stack's Item
+     *
+     * @return out
+     */
+    public static StringBuilder appendSlotLine(StringBuilder out, int quantity, String name)
+    {
+        out.append("  ");
+        appendItemStack(out, quantity, name);
+
+        return out.append(LINE_SEPARATOR);
+    }
+
+    /**
+     * Append a complete Inventory summary--i.e., `inv.toString()`.
+     *
+     * @param out destination
+     * @param inv Inventory to summarize
+     *
+     * @return out
+     */
+    public static StringBuilder appendInventory(StringBuilder out, Inventory inv)
+    {
+        return inv.renderTo(out);
+    }
+
+    /**
+     * Append one line of the Item List--i.e.,
+     * `String.format("  %2d %s%n", id, name)`.
+     *
+     * @param out destination
+     * @param id Item id
+     * @param name Item name
+     *
+     * @return out
+     */
+    public static StringBuilder appendItemLine(StringBuilder out, int id, String name)
+    {
+        out.append("  ");
+        appendPadded(out, id, 2);
+
+        return out.append(' ').append(name).append(LINE_SEPARATOR);
+    }
+
+    /**
+     * Append the platform line separator.
+     *
+     * @param out destination
+     *
+     * @return out
+     */
+    public static StringBuilder appendLineSeparator(StringBuilder out)
+    {
+        return out.append(LINE_SEPARATOR);
+    }
+
+    /**
+     * Determine the number of characters needed to print an int (including
+     * a leading minus sign).
+     *
+     * @param value number to measure
+     */
+    static int decimalLength(int value)
+    {
+        if (value == Integer.MIN_VALUE) {
+            return 11;
+        }
+
+        int length = 1;
+        int remaining = value;
+
+        if (remaining < 0) {
+            ++length;
+            remaining = -remaining;
+        }
+
+        while (remaining >= 10) {
+            remaining /= 10;
+            ++length;
+        }
+
+        return length;
+    }
+}
@@ -0,0 +1,20 @@
+package items;
+
+/**
+ * A SlotConsumer receives the contents of each slot as primitives (Item id
+ * and quantity)--no ItemStack is created or handed out.
+ *
+ * @see Inventory#forEachSlot
+ * @see CompactInventory#forEachSlot
+ */
+@FunctionalInterface
+public interface SlotConsumer
+{
+    /**
+     * Receive one slot.
+     *
+     * @param id id of the slot's Item
+     * @param quantity number of items in the slot
+     */
+    void accept(int id, int quantity);
+}
@@ -0,0 +1,43 @@
+package items;
+
+/**
+ * A SlotCursor walks the slots of an Inventory (in order) without creating
+ * or handing out ItemStacks. One cursor is reused for every slot:
+ * <pre>
+ *   SlotCursor cursor = inv.cursor();
+ *   while (cursor.next()) {
+ *       total += cursor.quantity();
+ *   }
+ * </pre>
+ * The Inventory must not be changed while a cursor over it is in use.
+ */
+public interface SlotCursor
+{
+    /**
+     * Move to the next slot (the first slot on the first call).
+     *
+     * @return true if there is such a slot and false once every slot has
+     *     been visited
+     */
+    boolean next();
+
+    /**
+     * Retrieve the id of the current slot's Item.
+     */
+    int id();
+
+    /**
+     * Retrieve the number of items in the current slot.
+     */
+    int quantity();
+
+    /**
+     * Retrieve the name of the current slot's Item.
+     */
+    String name();
+
+    /**
+     * Move back to before the first slot (so the cursor can be reused).
+     */
+    void reset();
+}
@@ -0,0 +1,181 @@
+package items;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * A Spliterator over the slots of several Inventories, in order, as if they
+ * were one long list.
+ * <p>
+ * Splitting is by slot count, not by Inventory: each split takes half of
+ * the remaining slots, wherever the Inventory boundaries fall. A few very
+ * large Inventories among many small ones therefore still divide evenly
+ * across threads.
+ */
+final class SlotSpliterator implements Spliterator<ItemStack>
+{
+    /**
+     * Characteristics of every SlotSpliterator.
+     */
+    private static final int CHARACTERISTICS =
+        Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.NONNULL;
+
+    /**
+     * Slots of each Inventory.
+     */
+    private final List<ItemStack>[] slotLists;
+
+    /**
+     * Global position of the first slot of each list (plus one final entry
+     * holding the total).
+     */
+    private final long[] starts;
+
+    /**
+     * Global position of the next slot.
+     */
+    private long origin;
+
+    /**
+     * Global position one past the last slot.
+     */
+    private final long fence;
+
+    /**
+     * List holding slot *origin*.
+     */
+    private int list;
+
+    /**
+     * Position of slot *origin* within its list.
+     */
+    private int pos;
+
+    /**
+     * Cover every slot of every list.
+     *
+     * @param slotLists slots of each Inventory
+     */
+    SlotSpliterator(List<ItemStack>[] slotLists)
+    {
+        this(slotLists, prefixSums(slotLists), 0, -1);
+    }
+
+    private SlotSpliterator(List<ItemStack>[] slotLists, long[] starts, long origin, long fence)
+    {
+        this.slotLists = slotLists;
+        this.starts    = starts;
+        this.fence     = fence < 0 ? starts[slotLists.length] : fence;
+        this.seek(origin);
+    }
+
+    /**
+     * Compute the global position of the first slot of each list.
+     */
+    private static long[] prefixSums(List<ItemStack>[] slotLists)
+    {
+        long[] starts = new long[slotLists.length + 1];
+
+        for (int i = 0; i < slotLists.length; ++i) {
+            starts[i + 1] = starts[i] + slotLists[i].size();
+        }
+
+        return starts;
+    }
+
+    /**
+     * Move to a global position.
+     */
+    private void seek(long target)
+    {
+        int found = Arrays.binarySearch(this.starts, target);
+
+        if (found < 0) {
+            found = -found - 2;
+        }
+        else {
+            // Skip empty lists (which share a start with the next list)
+            while (found < this.slotLists.length && this.starts[found + 1] == target) {
+                ++found;
+            }
+        }
+
+        this.origin = target;
+        this.list   = found;
+        this.pos    = found < this.slotLists.length ? (int) (target - this.starts[found]) : 0;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super ItemStack> action)
+    {
+        if (this.origin >= this.fence) {
+            return false;
+        }
+
+        while (this.pos >= this.slotLists[this.list].size()) {
+            ++this.list;
+            this.pos = 0;
+        }
+
+        action.accept(this.slotLists[this.list].get(this.pos++));
+        ++this.origin;
+
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super ItemStack> action)
+    {
+        long remaining = this.fence - this.origin;
+
+        while (remaining > 0) {
+            final List<ItemStack> slots = this.slotLists[this.list];
+            final int end = (int) Math.min(slots.size(), this.pos + remaining);
+
+            for (int i = this.pos; i < end; ++i) {
+                action.accept(slots.get(i));
+            }
+
+            remaining   -= end - this.pos;
+            this.origin += end - this.pos;
+
+            if (remaining > 0) {
+                ++this.list;
+                this.pos = 0;
+            }
+            else {
+                this.pos = end;
+            }
+        }
+    }
+
+    @Override
+    public Spliterator<ItemStack> trySplit()
+    {
+        final long mid = (this.origin + this.fence) >>> 1;
+
+        if (mid <= this.origin) {
+            return null;
+        }
+
+        SlotSpliterator prefix =
+            new SlotSpliterator(this.slotLists, this.starts, this.origin, mid);
+        this.seek(mid);
+
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize()
+    {
+        return this.fence - this.origin;
+    }
+
+    @Override
+    public int characteristics()
+    {
+        return CHARACTERISTICS;
+    }
+}
@@ -0,0 +1,108 @@
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+
+
+/**
+ * 1 - Does this piece of code perform the operations
+ *     it was designed to perform?
+ *
+ * 2 - Does this piece of code do something it was not
+ *     designed to perform?
+ *
+ * The background writer must produce exactly what a synchronous sink
+ * produces--in the same order.
+ */
+@SuppressWarnings({
+    "PMD.AtLeastOneConstructor",
+    "PMD.BeanMembersShouldSerialize",
+    "PMD.JUnitAssertionsShouldIncludeMessage",
+    "PMD.JUnitTestContainsTooManyAsserts",
+    "PMD.LocalVariableCouldBeFinal",
+    "PMD.MethodArgumentCouldBeFinal",
+    "PMD.LawOfDemeter"
+})
+@TestMethodOrder(MethodOrderer.MethodName.class)
+public class TestAsyncLogSink
+{
+    @Test
+    public void testMatchesSynchronousSink()
+        throws IOException
+    {
+        StringBuilder expected = new StringBuilder();
+        LogSink sync = LogSink.to(expected);
+
+        StringWriter actual = new StringWriter();
+
+        // A tiny ring buffer forces the producer to wait for the writer
+        try (AsyncLogSink async = new AsyncLogSink(actual, 4)) {
+            for (int i = 0; i < 50000; ++i) {
+                sync.entry(i % 3 != 0, i % 120, "Item " + i);
+                async.entry(i % 3 != 0, i % 120, "Item " + i);
+            }
+        }
+
+        assertThat(actual.toString(), is(equalTo(expected.toString())));
+    }
+
+    @Test
+    public void testFlush()
+        throws IOException
+    {
+        StringWriter out = new StringWriter();
+        AsyncLogSink async = new AsyncLogSink(out);
+
+        async.entry(true, 7, "Tomato");
+        async.flush();
+        assertThat(out.toString(), is(equalTo(String.format(" Stored    ( 7) Tomato%n"))));
+
+        async.entry(false, 1, "Dirt");
+        async.close();
+        assertThat(out.toString(), endsWith(String.format(" Discarded ( 1) Dirt%n")));
+
+        assertThrows(IllegalStateException.class, () -> async.entry(true, 1, "Air"));
+    }
+
+    @Test
+    public void testWriteFailure()
+    {
+        Writer broken = new Writer() {
+            @Override
+            public void write(char[] buf, int off, int len)
+                throws IOException
+            {
+                throw new IOException("disk full");
+            }
+
+            @Override
+            public void flush()
+            {
+            }
+
+            @Override
+            public void close()
+            {
+            }
+        };
+
+        AsyncLogSink async = new AsyncLogSink(broken);
+        async.entry(true, 1, "Air");
+
+        assertThrows(IOException.class, async::close);
+    }
+
+    @Test
+    public void testInvalidCapacity()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new AsyncLogSink(new StringBuilder(), 0));
+    }
+}
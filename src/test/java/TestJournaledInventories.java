@@ -0,0 +1,212 @@
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.Arrays;
+import java.util.List;
+
+import items.Item;
+import items.ItemStack;
+import items.Inventory;
+import items.InventorySnapshot;
+
+
+/**
+ * 1 - Does this piece of code perform the operations
+ *     it was designed to perform?
+ *
+ * 2 - Does this piece of code do something it was not
+ *     designed to perform?
+ *
+ * Recovery must rebuild exactly the committed Inventories--no matter
+ * where a checkpoint was interrupted.
+ */
+@SuppressWarnings({
+    "PMD.AtLeastOneConstructor",
+    "PMD.BeanMembersShouldSerialize",
+    "PMD.JUnitAssertionsShouldIncludeMessage",
+    "PMD.JUnitTestContainsTooManyAsserts",
+    "PMD.LocalVariableCouldBeFinal",
+    "PMD.MethodArgumentCouldBeFinal",
+    "PMD.LawOfDemeter"
+})
+@TestMethodOrder(MethodOrderer.MethodName.class)
+public class TestJournaledInventories
+{
+    @TempDir
+    Path tempDir;
+
+    private static final Item TOMATO = new Item(1, "Tomato");
+    private static final Item SHOVEL = new Item(2, "Unbreaking Gold Shovel");
+
+    private JournaledInventories recover()
+        throws IOException
+    {
+        return JournaledInventories.recover(
+            tempDir.resolve("inventories.bin"), tempDir.resolve("inventories.log")
+        );
+    }
+
+    @Test
+    public void testRecoverFromJournal()
+        throws IOException
+    {
+        String expected;
+
+        try (JournaledInventories store = recover()) {
+            int bag = store.newInventory(1);
+
+            assertThat(store.addItems(bag, new ItemStack(TOMATO, 4)), is(true));
+            assertThat(store.addItems(bag, new ItemStack(TOMATO, 3)), is(true));
+            assertThat(store.addItems(bag, new ItemStack(SHOVEL, 1)), is(false));
+
+            store.commit();
+            expected = store.inventories().toString();
+        }
+
+        try (JournaledInventories store = recover()) {
+            List<InventorySnapshot> actual = store.inventories();
+
+            assertThat(actual.size(), equalTo(1));
+            assertThat(actual.toString(), is(equalTo(expected)));
+        }
+    }
+
+    /**
+     * Readers get snapshots--changing what they return must not bypass the
+     * journal.
+     */
+    @Test
+    public void testInventoriesAreReadOnly()
+        throws IOException
+    {
+        String expected;
+
+        try (JournaledInventories store = recover()) {
+            int bag = store.newInventory(2);
+            ItemStack tomatoes = new ItemStack(TOMATO, 4);
+
+            assertThat(store.addItems(bag, tomatoes), is(true));
+            tomatoes.addItems(100);
+            store.inventories().get(bag).iterator().next().addItems(100);
+
+            expected = store.inventories().toString();
+            assertThat(store.inventories().get(bag).iterator().next().size(), equalTo(4));
+        }
+
+        try (JournaledInventories store = recover()) {
+            assertThat(store.inventories().toString(), is(equalTo(expected)));
+        }
+    }
+
+    @Test
+    public void testRecoverAfterCheckpoint()
+        throws IOException
+    {
+        String expected;
+
+        try (JournaledInventories store = recover()) {
+            store.newInventory(2);
+            store.addItems(0, new ItemStack(TOMATO, 4));
+            store.checkpoint();
+
+            store.addItems(0, new ItemStack(TOMATO, 1));
+            store.addItems(0, new ItemStack(SHOVEL, 2));
+            expected = store.inventories().toString();
+        }
+
+        assertThat(Files.exists(tempDir.resolve("inventories.bin")), is(true));
+
+        try (JournaledInventories store = recover()) {
+            assertThat(store.inventories().toString(), is(equalTo(expected)));
+        }
+    }
+
+    @Test
+    public void testInterruptedCheckpointIsFinished()
+        throws IOException
+    {
+        String expected;
+
+        try (JournaledInventories store = recover()) {
+            store.newInventory(2);
+            store.addItems(0, new ItemStack(TOMATO, 4));
+            store.commit();
+            expected = store.inventories().toString();
+
+            // Simulate a crash after the checkpoint record is written, but
+            // before the snapshot is renamed
+            Inventory bag = new Inventory(2);
+            bag.addItems(new ItemStack(TOMATO, 4));
+            SnapshotCodec.save(tempDir.resolve("inventories.bin.tmp"), Arrays.asList(bag));
+        }
+
+        try (MutationJournal journal = MutationJournal.open(
+                tempDir.resolve("inventories.log"), new JournalSkipper()
+            )) {
+            journal.appendCheckpoint();
+        }
+
+        try (JournaledInventories store = recover()) {
+            assertThat(store.inventories().toString(), is(equalTo(expected)));
+        }
+
+        assertThat(Files.exists(tempDir.resolve("inventories.bin.tmp")), is(false));
+
+        // ... and recovering again must not apply anything twice
+        try (JournaledInventories store = recover()) {
+            assertThat(store.inventories().toString(), is(equalTo(expected)));
+        }
+    }
+
+    @Test
+    public void testAbandonedCheckpointIsDiscarded()
+        throws IOException
+    {
+        String expected;
+
+        try (JournaledInventories store = recover()) {
+            store.newInventory(2);
+            store.addItems(0, new ItemStack(TOMATO, 4));
+            expected = store.inventories().toString();
+        }
+
+        // A crash before the checkpoint record leaves a stray snapshot
+        Files.write(tempDir.resolve("inventories.bin.tmp"), new byte[] {1, 2, 3});
+
+        try (JournaledInventories store = recover()) {
+            assertThat(store.inventories().toString(), is(equalTo(expected)));
+        }
+
+        assertThat(Files.exists(tempDir.resolve("inventories.bin.tmp")), is(false));
+    }
+
+    /**
+     * Ignore every record.
+     */
+    private static class JournalSkipper implements MutationJournal.RecordHandler
+    {
+        @Override
+        public void newInventory(int capacity)
+        {
+        }
+
+        @Override
+        public void addItems(int inventory, Item item, int quantity)
+        {
+        }
+
+        @Override
+        public void checkpoint()
+        {
+        }
+    }
+}
@@ -0,0 +1,83 @@
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import items.Item;
+
+
+/**
+ * 1 - Does this piece of code perform the operations
+ *     it was designed to perform?
+ *
+ * 2 - Does this piece of code do something it was not
+ *     designed to perform?
+ */
+@SuppressWarnings({
+    "PMD.AtLeastOneConstructor",
+    "PMD.BeanMembersShouldSerialize",
+    "PMD.JUnitAssertionsShouldIncludeMessage",
+    "PMD.JUnitTestContainsTooManyAsserts",
+    "PMD.LocalVariableCouldBeFinal",
+    "PMD.MethodArgumentCouldBeFinal",
+    "PMD.LawOfDemeter"
+})
+@TestMethodOrder(MethodOrderer.MethodName.class)
+public class TestLineTokenizer
+{
+    @Test
+    public void testInventoryHeader()
+    {
+        LineTokenizer tokens = new LineTokenizer().reset("# 12");
+
+        assertThat(tokens.isBlank(), is(false));
+        assertThat(tokens.leadingChar(), is('#'));
+
+        tokens.skipToken();
+        assertThat(tokens.nextInt(), equalTo(12));
+    }
+
+    @Test
+    public void testItemStackLine()
+    {
+        LineTokenizer tokens = new LineTokenizer().reset("-  7\t 50  ");
+
+        assertThat(tokens.leadingChar(), is('-'));
+
+        tokens.skipToken();
+        assertThat(tokens.nextInt(), equalTo(7));
+        assertThat(tokens.nextInt(), equalTo(50));
+
+        assertThrows(NumberFormatException.class, tokens::nextInt);
+    }
+
+    @Test
+    public void testBlank()
+    {
+        assertThat(new LineTokenizer().reset("").isBlank(), is(true));
+        assertThat(new LineTokenizer().reset(" \t ").isBlank(), is(true));
+    }
+
+    @Test
+    public void testParseItem()
+    {
+        LineTokenizer tokens = new LineTokenizer();
+
+        Item item = tokens.parseItem("9 Diamond Block");
+        assertThat(item.getID(), equalTo(9));
+        assertThat(item.getName(), is(equalTo("Diamond Block")));
+
+        item = tokens.parseItem("1 HP Potion  ");
+        assertThat(item.getName(), is(equalTo("HP Potion")));
+
+        assertThat(tokens.parseItem("3"), is(nullValue()));
+        assertThat(tokens.parseItem("3 "), is(nullValue()));
+        assertThat(tokens.parseItem(""), is(nullValue()));
+
+        assertThrows(NumberFormatException.class, () -> tokens.parseItem("x Air"));
+    }
+}
@@ -0,0 +1,89 @@
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import java.util.List;
+import java.util.ArrayList;
+
+
+/**
+ * 1 - Does this piece of code perform the operations
+ *     it was designed to perform?
+ *
+ * 2 - Does this piece of code do something it was not
+ *     designed to perform?
+ *
+ * Every entry must match what String.format produced.
+ */
+@SuppressWarnings({
+    "PMD.AtLeastOneConstructor",
+    "PMD.BeanMembersShouldSerialize",
+    "PMD.JUnitAssertionsShouldIncludeMessage",
+    "PMD.JUnitTestContainsTooManyAsserts",
+    "PMD.LocalVariableCouldBeFinal",
+    "PMD.MethodArgumentCouldBeFinal",
+    "PMD.LawOfDemeter"
+})
+@TestMethodOrder(MethodOrderer.MethodName.class)
+public class TestLogRecordEncoder
+{
+    private static final int[] QUANTITIES = {
+        0, 1, 9, 10, 99, 100, 12345, -1, -9, -10, Integer.MAX_VALUE, Integer.MIN_VALUE
+    };
+
+    @Test
+    public void testMatchesStringFormat()
+    {
+        for (int quantity : QUANTITIES) {
+            StringBuilder stored = new StringBuilder();
+            LogRecordEncoder.appendEntry(stored, true, quantity, "HP Potion");
+
+            StringBuilder discarded = new StringBuilder();
+            LogRecordEncoder.appendEntry(discarded, false, quantity, "\u00C9p\u00E9e");
+
+            assertThat(
+                stored.toString(),
+                is(equalTo(String.format(" Stored    (%2d) %s%n", quantity, "HP Potion")))
+            );
+            assertThat(
+                discarded.toString(),
+                is(equalTo(String.format(" Discarded (%2d) %s%n", quantity, "\u00C9p\u00E9e")))
+            );
+        }
+    }
+
+    @Test
+    public void testAppendable()
+        throws IOException
+    {
+        StringWriter out = new StringWriter();
+        LogRecordEncoder.appendEntry(out, true, 5, "Tomato");
+
+        assertThat(out.toString(), is(equalTo(String.format(" Stored    ( 5) Tomato%n"))));
+    }
+
+    @Test
+    public void testSinks()
+        throws IOException
+    {
+        List<String> entries = new ArrayList<>();
+        LogSink.of(entries::add).entry(false, 3, "Dirt");
+
+        StringBuilder text = new StringBuilder();
+        LogSink toText = LogSink.to(text);
+        toText.entry(true, 10, "Air");
+        toText.entry(false, 3, "Dirt");
+
+        assertThat(entries, contains(String.format(" Discarded ( 3) Dirt%n")));
+        assertThat(
+            text.toString(),
+            is(equalTo(String.format(" Stored    (10) Air%n Discarded ( 3) Dirt%n")))
+        );
+    }
+}
@@ -0,0 +1,144 @@
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.List;
+import java.util.ArrayList;
+
+import items.Item;
+import items.Inventory;
+import items.ItemCatalog;
+
+
+/**
+ * 1 - Does this piece of code perform the operations
+ *     it was designed to perform?
+ *
+ * 2 - Does this piece of code do something it was not
+ *     designed to perform?
+ *
+ * The memory-mapped loader must produce exactly what the BufferedReader
+ * based parsers produce.
+ */
+@SuppressWarnings({
+    "PMD.AtLeastOneConstructor",
+    "PMD.BeanMembersShouldSerialize",
+    "PMD.JUnitAssertionsShouldIncludeMessage",
+    "PMD.JUnitTestContainsTooManyAsserts",
+    "PMD.LocalVariableCouldBeFinal",
+    "PMD.MethodArgumentCouldBeFinal",
+    "PMD.LawOfDemeter"
+})
+@TestMethodOrder(MethodOrderer.MethodName.class)
+public class TestMappedLoader
+{
+    private static final String ITEM_TEXT =
+        "2 MP Potion\r\n0 Air\n1 HP Potion\n3 Bow Tie  \n4\nDirt\n5 \u00C9p\u00E9e";
+
+    private static final String INVENTORY_TEXT =
+        "# 2\n- 1 10\r\n- 2  5\n\n- 3  2\n# 3\n- 1337 2\n- 5 1";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testLoadItemList()
+        throws IOException
+    {
+        Path itemFile = tempDir.resolve("itemList.txt");
+        Files.write(itemFile, ITEM_TEXT.getBytes(StandardCharsets.UTF_8));
+
+        List<Item> expected = Storage.parseItemList(
+            new BufferedReader(new StringReader(ITEM_TEXT))
+        );
+        List<Item> actual = MappedLoader.loadItemList(itemFile);
+
+        assertThat(actual, is(equalTo(expected)));
+        assertThat(actual.get(3).getName(), is(equalTo("Bow Tie")));
+        assertThat(actual.get(4).getName(), is(equalTo("\u00C9p\u00E9e")));
+    }
+
+    @Test
+    public void testStreamInventories()
+        throws IOException
+    {
+        Path itemFile = tempDir.resolve("itemList.txt");
+        Files.write(itemFile, ITEM_TEXT.getBytes(StandardCharsets.UTF_8));
+
+        Path inventoryFile = tempDir.resolve("inventoryList.txt");
+        Files.write(inventoryFile, INVENTORY_TEXT.getBytes(StandardCharsets.UTF_8));
+
+        ItemCatalog catalog = MappedLoader.loadItemCatalog(itemFile);
+
+        List<String> expectedLog = new ArrayList<>();
+        List<Inventory> expectedInventories = new ArrayList<>();
+        Storage.streamInventories(
+            new BufferedReader(new StringReader(INVENTORY_TEXT)),
+            catalog,
+            expectedLog::add,
+            expectedInventories::add
+        );
+
+        List<String> actualLog = new ArrayList<>();
+        List<Inventory> actualInventories = new ArrayList<>();
+        MappedLoader.streamInventories(
+            inventoryFile, catalog, actualLog::add, actualInventories::add
+        );
+
+        assertThat(actualLog, hasSize(4));
+        assertThat(actualLog, is(equalTo(expectedLog)));
+        assertThat(actualInventories, is(equalTo(expectedInventories)));
+    }
+
+    /**
+     * Build enough inventories to span several chunks and check that the
+     * parallel loader reproduces the sequential log and Inventories.
+     */
+    @Test
+    public void testParallelStreamInventories()
+        throws IOException
+    {
+        Path itemFile = tempDir.resolve("itemList.txt");
+        Files.write(itemFile, ITEM_TEXT.getBytes(StandardCharsets.UTF_8));
+
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; text.length() < 3 * MappedLoader.CHUNK_SIZE; ++i) {
+            text.append(String.format("# %d%n", 1 + i % 4));
+
+            for (int j = 0; j < i % 7; ++j) {
+                text.append(String.format("- %d %d%n", (i + j) % 7, 1 + j));
+            }
+        }
+
+        Path inventoryFile = tempDir.resolve("inventoryList.txt");
+        Files.write(inventoryFile, text.toString().getBytes(StandardCharsets.UTF_8));
+
+        ItemCatalog catalog = MappedLoader.loadItemCatalog(itemFile);
+
+        List<String> expectedLog = new ArrayList<>();
+        List<Inventory> expectedInventories = new ArrayList<>();
+        MappedLoader.streamInventories(
+            inventoryFile, catalog, expectedLog::add, expectedInventories::add
+        );
+
+        List<String> actualLog = new ArrayList<>();
+        List<Inventory> actualInventories = new ArrayList<>();
+        MappedLoader.parallelStreamInventories(
+            inventoryFile, catalog, actualLog::add, actualInventories::add
+        );
+
+        assertThat(actualLog, is(equalTo(expectedLog)));
+        assertThat(actualInventories, is(equalTo(expectedInventories)));
+    }
+}
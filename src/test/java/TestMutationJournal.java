@@ -0,0 +1,173 @@
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import java.util.List;
+import java.util.ArrayList;
+
+import items.Item;
+import items.ItemStack;
+
+
+/**
+ * 1 - Does this piece of code perform the operations
+ *     it was designed to perform?
+ *
+ * 2 - Does this piece of code do something it was not
+ *     designed to perform?
+ *
+ * Every synced record must be replayed--in order--and a torn record must
+ * end the journal.
+ */
+@SuppressWarnings({
+    "PMD.AtLeastOneConstructor",
+    "PMD.BeanMembersShouldSerialize",
+    "PMD.JUnitAssertionsShouldIncludeMessage",
+    "PMD.JUnitTestContainsTooManyAsserts",
+    "PMD.LocalVariableCouldBeFinal",
+    "PMD.MethodArgumentCouldBeFinal",
+    "PMD.LawOfDemeter"
+})
+@TestMethodOrder(MethodOrderer.MethodName.class)
+public class TestMutationJournal
+{
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Record every replayed record as a line of text.
+     */
+    private static class Recorder implements MutationJournal.RecordHandler
+    {
+        final List<String> records = new ArrayList<>();
+
+        @Override
+        public void newInventory(int capacity)
+        {
+            records.add("new " + capacity);
+        }
+
+        @Override
+        public void addItems(int inventory, Item item, int quantity)
+        {
+            records.add(String.format("add %d %d %s %d", inventory, item.getID(), item.getName(), quantity));
+        }
+
+        @Override
+        public void checkpoint()
+        {
+            records.add("checkpoint");
+        }
+    }
+
+    private Path writeJournal()
+        throws IOException
+    {
+        Path journalFile = tempDir.resolve("journal.log");
+
+        try (MutationJournal journal = MutationJournal.open(journalFile, new Recorder())) {
+            journal.appendNewInventory(4);
+            long seq = journal.appendAddItems(0, new ItemStack(new Item(2, "\u00C9p\u00E9e"), 3));
+            journal.sync(seq);
+
+            journal.appendCheckpoint();
+        }
+
+        return journalFile;
+    }
+
+    @Test
+    public void testReplay()
+        throws IOException
+    {
+        Path journalFile = writeJournal();
+
+        Recorder recorder = new Recorder();
+        MutationJournal.replay(journalFile, recorder);
+
+        assertThat(
+            recorder.records,
+            contains("new 4", "add 0 2 \u00C9p\u00E9e 3", "checkpoint")
+        );
+    }
+
+    @Test
+    public void testTornRecordIsDiscarded()
+        throws IOException
+    {
+        Path journalFile = writeJournal();
+
+        // Cut the last record (the checkpoint) in half
+        try (FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        Recorder recorder = new Recorder();
+        try (MutationJournal journal = MutationJournal.open(journalFile, recorder)) {
+            journal.appendNewInventory(7);
+        }
+
+        assertThat(recorder.records, contains("new 4", "add 0 2 \u00C9p\u00E9e 3"));
+
+        Recorder reopened = new Recorder();
+        MutationJournal.replay(journalFile, reopened);
+
+        assertThat(reopened.records, contains("new 4", "add 0 2 \u00C9p\u00E9e 3", "new 7"));
+    }
+
+    @Test
+    public void testCorruptRecordEndsJournal()
+        throws IOException
+    {
+        Path journalFile = writeJournal();
+
+        // Flip one byte of the Item name
+        byte[] bytes = Files.readAllBytes(journalFile);
+        bytes[bytes.length - 12] ^= 0x01;
+        Files.write(journalFile, bytes);
+
+        Recorder recorder = new Recorder();
+        MutationJournal.replay(journalFile, recorder);
+
+        assertThat(recorder.records, contains("new 4"));
+    }
+
+    @Test
+    public void testReset()
+        throws IOException
+    {
+        Path journalFile = writeJournal();
+
+        try (MutationJournal journal = MutationJournal.open(journalFile, new Recorder())) {
+            journal.reset();
+            journal.appendNewInventory(1);
+        }
+
+        Recorder recorder = new Recorder();
+        MutationJournal.replay(journalFile, recorder);
+
+        assertThat(recorder.records, contains("new 1"));
+    }
+
+    @Test
+    public void testRejectsOtherFiles()
+        throws IOException
+    {
+        Path textFile = tempDir.resolve("inventoryList.txt");
+        Files.write(textFile, "# 2\n- 1 10\n".getBytes());
+
+        assertThrows(IOException.class, () -> MutationJournal.replay(textFile, new Recorder()));
+    }
+}
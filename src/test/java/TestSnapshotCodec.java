@@ -0,0 +1,224 @@
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.stream.Collectors;
+
+import items.Item;
+import items.ItemStack;
+import items.Inventory;
+
+
+/**
+ * 1 - Does this piece of code perform the operations
+ *     it was designed to perform?
+ *
+ * 2 - Does this piece of code do something it was not
+ *     designed to perform?
+ *
+ * Loading a snapshot must reproduce exactly the Inventories that were
+ * saved.
+ */
+@SuppressWarnings({
+    "PMD.AtLeastOneConstructor",
+    "PMD.BeanMembersShouldSerialize",
+    "PMD.JUnitAssertionsShouldIncludeMessage",
+    "PMD.JUnitTestContainsTooManyAsserts",
+    "PMD.LocalVariableCouldBeFinal",
+    "PMD.MethodArgumentCouldBeFinal",
+    "PMD.LawOfDemeter"
+})
+@TestMethodOrder(MethodOrderer.MethodName.class)
+public class TestSnapshotCodec
+{
+    @TempDir
+    Path tempDir;
+
+    private static List<Inventory> buildInventories()
+    {
+        char[] longName = new char[100000];
+        Arrays.fill(longName, 'x');
+
+        Item[] items = new Item[] {
+            new Item(0, "Air"),
+            new Item(1, "\u00C9p\u00E9e"),
+            new Item(2, new String(longName))
+        };
+
+        Inventory first = new Inventory(3);
+        first.addItems(new ItemStack(items[1], 4));
+        first.addItems(new ItemStack(items[0], 12));
+        first.addItems(new ItemStack(items[1], 3));
+
+        Inventory second = new Inventory(5);
+        second.addItems(new ItemStack(items[2], 1));
+
+        return Arrays.asList(first, new Inventory(0), second);
+    }
+
+    private static byte[] encode(List<Inventory> inventories)
+        throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SnapshotCodec.write(Channels.newChannel(bytes), inventories);
+
+        return bytes.toByteArray();
+    }
+
+    private static List<Inventory> decode(byte[] bytes)
+        throws IOException
+    {
+        return SnapshotCodec.read(Channels.newChannel(new ByteArrayInputStream(bytes)));
+    }
+
+    @Test
+    public void testRoundTrip()
+        throws IOException
+    {
+        List<Inventory> expected = buildInventories();
+        List<Inventory> actual = decode(encode(expected));
+
+        assertThat(actual, is(equalTo(expected)));
+
+        for (int i = 0; i < expected.size(); ++i) {
+            assertThat(actual.get(i).toString(), is(equalTo(expected.get(i).toString())));
+        }
+    }
+
+    @Test
+    public void testSaveAndLoad()
+        throws IOException
+    {
+        Path snapshotFile = tempDir.resolve("inventories.bin");
+        List<Inventory> expected = buildInventories();
+
+        SnapshotCodec.save(snapshotFile, expected);
+        List<Inventory> actual = SnapshotCodec.load(snapshotFile);
+
+        assertThat(actual.toString(), is(equalTo(expected.toString())));
+    }
+
+    @Test
+    public void testLoadedItemsAreShared()
+        throws IOException
+    {
+        Inventory first = new Inventory(1);
+        first.addItems(new ItemStack(new Item(7, "Bow Tie"), 1));
+
+        Inventory second = new Inventory(1);
+        second.addItems(new ItemStack(new Item(7, "Bow Tie"), 2));
+
+        List<Inventory> actual = decode(encode(Arrays.asList(first, second)));
+
+        Item lhs = actual.get(0).iterator().next().getItem();
+        Item rhs = actual.get(1).iterator().next().getItem();
+
+        assertThat(lhs.isImmutable(), is(true));
+        assertThat(lhs, is(sameInstance(rhs)));
+    }
+
+    /**
+     * Saving reads the slots in place--it must not hand them out (which
+     * would make the next clone copy them).
+     */
+    @Test
+    public void testWriteLeavesStacksShared()
+        throws IOException
+    {
+        List<Inventory> inventories = buildInventories();
+        Inventory first = inventories.get(0);
+
+        // Detach the added stacks (which their callers may still hold)
+        first.clone();
+
+        List<ItemStack> before = first.stream().collect(Collectors.toList());
+        encode(inventories);
+        List<ItemStack> fromCopy = first.clone().stream().collect(Collectors.toList());
+
+        assertThat(fromCopy, hasSize(before.size()));
+        for (int i = 0; i < before.size(); ++i) {
+            assertThat(fromCopy.get(i), is(sameInstance(before.get(i))));
+        }
+    }
+
+    @Test
+    public void testEmptyList()
+        throws IOException
+    {
+        assertThat(decode(encode(new ArrayList<>())), is(empty()));
+    }
+
+    @Test
+    public void testRejectsBadInput()
+        throws IOException
+    {
+        byte[] valid = encode(buildInventories());
+
+        byte[] badMagic = valid.clone();
+        badMagic[0] = 'X';
+        assertThrows(IOException.class, () -> decode(badMagic));
+
+        byte[] badVersion = valid.clone();
+        badVersion[7] = (byte) (SnapshotCodec.FORMAT_VERSION + 1);
+        assertThrows(IOException.class, () -> decode(badVersion));
+
+        byte[] truncated = Arrays.copyOf(valid, valid.length - 3);
+        assertThrows(EOFException.class, () -> decode(truncated));
+
+        Path textFile = tempDir.resolve("inventoryList.txt");
+        Files.write(textFile, "# 2\n- 1 10\n".getBytes());
+        assertThrows(IOException.class, () -> SnapshotCodec.load(textFile));
+    }
+
+    @Test
+    public void testRejectsCorruptCounts()
+        throws IOException
+    {
+        byte[] valid = encode(buildInventories());
+        Path snapshotFile = tempDir.resolve("corrupt.bin");
+
+        // Item count (bytes 8-11) set to a huge value and to a negative one
+        byte[] hugeCount = valid.clone();
+        hugeCount[8] = 0x7F;
+        Files.write(snapshotFile, hugeCount);
+
+        IOException error = assertThrows(IOException.class, () -> SnapshotCodec.load(snapshotFile));
+        assertThat(error.getMessage(), containsString("item count"));
+
+        byte[] negativeCount = valid.clone();
+        negativeCount[8] = (byte) 0x80;
+        error = assertThrows(IOException.class, () -> decode(negativeCount));
+        assertThat(error.getMessage(), containsString("negative item count"));
+
+        // First name length (bytes 16-19) set to a huge value
+        byte[] hugeName = valid.clone();
+        hugeName[16] = 0x7F;
+        error = assertThrows(IOException.class, () -> decode(hugeName));
+        assertThat(error.getMessage(), containsString("name length"));
+
+        Files.write(snapshotFile, hugeName);
+        error = assertThrows(IOException.class, () -> SnapshotCodec.load(snapshotFile));
+        assertThat(error.getMessage(), containsString("name length"));
+
+        // A huge count in an unsized stream fails on the data that follows
+        // (without allocating for the count up front)
+        assertThrows(IOException.class, () -> decode(hugeCount));
+    }
+}
@@ -21,6 +21,7 @@ import java.util.stream.Collectors;
 import items.Item;
 import items.ItemStack;
 import items.Inventory;
+import items.ItemCatalog;
 
 
 /**
@@ -363,4 +364,127 @@ public class TestStorage
             )
         );
     }
+
+    /**
+     * Stream two Inventories and check that each log entry and Inventory is
+     * delivered in order--with each Inventory handed off once complete.
+     */
+    @Test
+    public void testStreamInventories()
+        throws IOException
+    {
+        String inventoryText = String.join(
+            System.lineSeparator(),
+            "# 2",
+            "- 1 10",
+            "- 2  5",
+            "- 3  2",
+            "# 2",
+            "- 1337 2",
+            "- 4 10"
+        );
+
+        BufferedReader invBuffer = new BufferedReader(
+            new StringReader(inventoryText)
+        );
+
+        List<String> logEntries = new ArrayList<>();
+        List<Inventory> inventories = new ArrayList<>();
+        List<Integer> logSizeAtHandoff = new ArrayList<>();
+
+        Storage.streamInventories(
+            invBuffer,
+            new ItemCatalog(expectedItems),
+            logEntries::add,
+            (Inventory inv) -> {
+                logSizeAtHandoff.add(logEntries.size());
+                inventories.add(inv);
+            }
+        );
+
+        assertThat(inventories, hasSize(2));
+        assertThat(logSizeAtHandoff, contains(3, 4));
+
+        assertThat(
+            logEntries,
+            contains(
+                String.format(" Stored    (10) HP Potion%n"),
+                String.format(" Stored    ( 5) MP Potion%n"),
+                String.format(" Discarded ( 2) Bow Tie%n"),
+                String.format(" Stored    (10) Dirt%n")
+            )
+        );
+
+        assertThat(inventories.get(0).utilizedSlots(), equalTo(2));
+        assertThat(inventories.get(1).utilizedSlots(), equalTo(1));
+    }
+
+    /**
+     * Item lines before the first `#` line belong to no Inventory--they
+     * must not end up in the first one.
+     */
+    @Test
+    public void testStreamIgnoresLinesBeforeFirstInventory()
+        throws IOException
+    {
+        String inventoryText = String.join(
+            System.lineSeparator(),
+            "- 1 5",
+            "# 2",
+            "- 2 3"
+        );
+
+        List<String> logEntries = new ArrayList<>();
+        List<Inventory> inventories = new ArrayList<>();
+
+        Storage.streamInventories(
+            new BufferedReader(new StringReader(inventoryText)),
+            new ItemCatalog(expectedItems),
+            logEntries::add,
+            inventories::add
+        );
+
+        assertThat(inventories, hasSize(1));
+        assertThat(inventories.get(0).utilizedSlots(), equalTo(1));
+        assertThat(
+            inventories.get(0).findMatchingItemStack(new ItemStack(expectedItems.get(1))),
+            is(nullValue())
+        );
+
+        assertThat(logEntries, contains(String.format(" Stored    ( 3) MP Potion%n")));
+    }
+
+    /**
+     * Log entries of a large Inventory are handed off in batches--not held
+     * until the Inventory is complete.
+     */
+    @Test
+    public void testStreamLogsInBatches()
+    {
+        List<String> logEntries = new ArrayList<>();
+        List<Inventory> inventories = new ArrayList<>();
+
+        InventoryParser parser = new InventoryParser(
+            new ItemCatalog(expectedItems),
+            logEntries::add,
+            inventories::add
+        );
+
+        parser.acceptLine("# 3");
+        for (int i = 0; i < InventoryParser.MAX_BATCH_SIZE; ++i) {
+            parser.acceptLine("- " + (1 + i % 4) + " 1");
+        }
+
+        assertThat(inventories, is(empty()));
+        assertThat(logEntries, hasSize(InventoryParser.MAX_BATCH_SIZE));
+        assertThat(logEntries.get(3), equalTo(String.format(" Discarded ( 1) Dirt%n")));
+
+        parser.acceptLine("- 1 1");
+        assertThat(logEntries, hasSize(InventoryParser.MAX_BATCH_SIZE));
+
+        parser.finish();
+        assertThat(inventories, hasSize(1));
+        assertThat(logEntries, hasSize(InventoryParser.MAX_BATCH_SIZE + 1));
+        assertThat(inventories.get(0).utilizedSlots(), equalTo(3));
+    }
 }
@@ -0,0 +1,158 @@
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import java.util.List;
+import java.util.ArrayList;
+
+import items.Item;
+import items.Inventory;
+import items.ItemCatalog;
+
+
+/**
+ * 1 - Does this piece of code perform the operations
+ *     it was designed to perform?
+ *
+ * 2 - Does this piece of code do something it was not
+ *     designed to perform?
+ */
+@SuppressWarnings({
+    "PMD.AtLeastOneConstructor",
+    "PMD.BeanMembersShouldSerialize",
+    "PMD.JUnitAssertionsShouldIncludeMessage",
+    "PMD.JUnitTestContainsTooManyAsserts",
+    "PMD.LocalVariableCouldBeFinal",
+    "PMD.MethodArgumentCouldBeFinal",
+    "PMD.LawOfDemeter"
+})
+@TestMethodOrder(MethodOrderer.MethodName.class)
+public class TestWorkloadGenerator
+{
+    private static String itemText(WorkloadGenerator generator)
+        throws IOException
+    {
+        StringWriter out = new StringWriter();
+        generator.writeItemList(out);
+
+        return out.toString();
+    }
+
+    private static String inventoryText(WorkloadGenerator generator)
+        throws IOException
+    {
+        StringWriter out = new StringWriter();
+        generator.writeInventoryList(out);
+
+        return out.toString();
+    }
+
+    @Test
+    public void testSameSeedSameFiles()
+        throws IOException
+    {
+        WorkloadGenerator lhs = new WorkloadGenerator().setSeed(7).setZipfExponent(1.1);
+        WorkloadGenerator rhs = new WorkloadGenerator().setSeed(7).setZipfExponent(1.1);
+
+        assertThat(itemText(lhs), is(equalTo(itemText(rhs))));
+        assertThat(inventoryText(lhs), is(equalTo(inventoryText(rhs))));
+    }
+
+    @Test
+    public void testSparseCatalog()
+        throws IOException
+    {
+        WorkloadGenerator generator = new WorkloadGenerator()
+            .setCatalogSize(500)
+            .setIdSparsity(10.0);
+
+        List<Item> items = Storage.parseItemList(
+            new BufferedReader(new StringReader(itemText(generator)))
+        );
+
+        assertThat(items, hasSize(500));
+        assertThat(new ItemCatalog(items).size(), equalTo(500));
+        assertThat(items.get(items.size() - 1).getID(), is(lessThan(5000)));
+    }
+
+    @Test
+    public void testInventoryList()
+        throws IOException
+    {
+        WorkloadGenerator generator = new WorkloadGenerator()
+            .setCatalogSize(20)
+            .setInventoryCount(50)
+            .setSlots(2, 4)
+            .setLinesPerInventory(1, 10)
+            .setUnknownIdRate(0.5);
+
+        ItemCatalog catalog = new ItemCatalog(
+            Storage.parseItemList(new BufferedReader(new StringReader(itemText(generator))))
+        );
+
+        String text = inventoryText(generator);
+
+        List<String> log = new ArrayList<>();
+        List<Inventory> inventories = new ArrayList<>();
+        Storage.streamInventories(
+            new BufferedReader(new StringReader(text)), catalog, log::add, inventories::add
+        );
+
+        final long itemLines = text.lines().filter(line -> line.startsWith("-")).count();
+
+        assertThat(inventories, hasSize(50));
+        assertThat((long) log.size(), is(lessThan(itemLines)));
+
+        for (Inventory inv : inventories) {
+            assertThat(inv.totalSlots(), is(both(greaterThanOrEqualTo(2)).and(lessThanOrEqualTo(4))));
+        }
+    }
+
+    @Test
+    public void testInvalidOptions()
+    {
+        WorkloadGenerator generator = new WorkloadGenerator();
+
+        assertThrows(IllegalArgumentException.class, () -> generator.setOption("--bogus=1"));
+        assertThrows(IllegalArgumentException.class, () -> generator.setOption("catalogSize=1"));
+        assertThrows(IllegalArgumentException.class, () -> generator.setOption("--unknownIdRate=2"));
+
+        generator.setOption("--minLines=5");
+        generator.setOption("--maxLines=4");
+        assertThrows(IllegalArgumentException.class, () -> generator.validate());
+    }
+
+    /**
+     * Range bounds may be given in either order--and may reach
+     * Integer.MAX_VALUE.
+     */
+    @Test
+    public void testRangeOptions()
+        throws IOException
+    {
+        WorkloadGenerator generator = new WorkloadGenerator();
+
+        generator.setOption("--minSlots=20");
+        generator.setOption("--maxSlots=40");
+        generator.setOption("--maxLines=0");
+        generator.validate();
+
+        generator.setOption("--minSlots=0");
+        generator.setOption("--maxSlots=" + Integer.MAX_VALUE);
+        generator.setOption("--inventoryCount=20");
+
+        for (String line : inventoryText(generator).split("\n")) {
+            assertThat(Integer.parseInt(line.substring(2)), is(greaterThanOrEqualTo(0)));
+        }
+    }
+}
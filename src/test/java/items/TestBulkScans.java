@@ -0,0 +1,102 @@
+package items;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+
+/**
+ * 1 - Does this piece of code perform the operations
+ *     it was designed to perform?
+ *
+ * 2 - Does this piece of code do something it was not
+ *     designed to perform?
+ *
+ * Every scan must match a plain loop--including at the array ends and
+ * beyond *length*.
+ */
+@SuppressWarnings({
+    "PMD.AtLeastOneConstructor",
+    "PMD.BeanMembersShouldSerialize",
+    "PMD.JUnitAssertionsShouldIncludeMessage",
+    "PMD.JUnitTestContainsTooManyAsserts",
+    "PMD.LocalVariableCouldBeFinal",
+    "PMD.MethodArgumentCouldBeFinal",
+    "PMD.LawOfDemeter"
+})
+@TestMethodOrder(MethodOrderer.MethodName.class)
+public class TestBulkScans
+{
+    private static final int[] EXTREMES = {
+        0, 1, -1, 7, Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE - 1
+    };
+
+    @Test
+    public void testSum()
+    {
+        assertThat(BulkScans.sum(new int[0], 0), is(0L));
+        assertThat(BulkScans.sum(EXTREMES, EXTREMES.length), is(
+            Arrays.stream(EXTREMES).asLongStream().sum()
+        ));
+
+        Random random = new Random(23);
+        for (int length = 0; length < 40; ++length) {
+            int[] values = random.ints(length + 3).toArray();
+
+            assertThat(BulkScans.sum(values, length), is(
+                Arrays.stream(values, 0, length).asLongStream().sum()
+            ));
+        }
+    }
+
+    @Test
+    public void testBelow()
+    {
+        for (int threshold : EXTREMES) {
+            int[] expected = IntStream.range(0, EXTREMES.length)
+                .filter(i -> EXTREMES[i] < threshold)
+                .toArray();
+
+            assertThat(BulkScans.countBelow(EXTREMES, EXTREMES.length, threshold), is(expected.length));
+            assertThat(BulkScans.indicesBelow(EXTREMES, EXTREMES.length, threshold), is(expected));
+        }
+
+        Random random = new Random(17);
+        for (int length = 0; length < 40; ++length) {
+            final int[] values = random.ints(length + 3, 0, 20).toArray();
+            final int len = length;
+
+            int[] expected = IntStream.range(0, len).filter(i -> values[i] < 5).toArray();
+
+            assertThat(BulkScans.countBelow(values, length, 5), is(expected.length));
+            assertThat(BulkScans.indicesBelow(values, length, 5), is(expected));
+        }
+    }
+
+    @Test
+    public void testContainsAny()
+    {
+        int[] ids = {4, 8, 15, 16, 23, 42, 99};
+
+        assertThat(BulkScans.containsAny(ids, ids.length), is(false));
+        assertThat(BulkScans.containsAny(ids, ids.length, 42), is(true));
+        assertThat(BulkScans.containsAny(ids, ids.length, 1, 2, 3), is(false));
+        assertThat(BulkScans.containsAny(ids, 6, 99), is(false));
+        assertThat(BulkScans.containsAny(ids, ids.length, 0, Integer.MIN_VALUE, 15), is(true));
+
+        // Many wanted ids use an index
+        int[] many = IntStream.range(100, 200).toArray();
+        assertThat(BulkScans.containsAny(ids, ids.length, many), is(false));
+
+        many[57] = 23;
+        assertThat(BulkScans.containsAny(ids, ids.length, many), is(true));
+        assertThat(BulkScans.containsAny(ids, 4, many), is(false));
+    }
+}
@@ -0,0 +1,201 @@
+package items;
+
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Iterator;
+
+
+/**
+ * 1 - Does this piece of code perform the operations
+ *     it was designed to perform?
+ *
+ * 2 - Does this piece of code do something it was not
+ *     designed to perform?
+ *
+ * A CompactInventory must be indistinguishable from an Inventory
+ * holding the same stacks.
+ */
+@SuppressWarnings({
+    "PMD.AtLeastOneConstructor",
+    "PMD.BeanMembersShouldSerialize",
+    "PMD.JUnitAssertionsShouldIncludeMessage",
+    "PMD.JUnitTestContainsTooManyAsserts",
+    "PMD.LocalVariableCouldBeFinal",
+    "PMD.MethodArgumentCouldBeFinal",
+    "PMD.LawOfDemeter",
+    "PMD.ShortVariable"
+})
+@TestMethodOrder(MethodOrderer.MethodName.class)
+public class TestCompactInventory
+{
+    private Item[] testItems;
+    private ItemCatalog catalog;
+
+    @BeforeEach
+    public void setUp()
+    {
+        testItems = new Item[] {
+            new Item(0, "Diamond Boots"),
+            new Item(1, "Tomato"),
+            new Item(2, "Unbreaking Gold Shovel")
+        };
+
+        catalog = new ItemCatalog(Arrays.asList(testItems));
+    }
+
+    @Test
+    public void testDefaultConstructor()
+    {
+        CompactInventory empty = new CompactInventory(catalog);
+
+        assertThat(empty.utilizedSlots(), equalTo(0));
+        assertThat(empty.emptySlots(), equalTo(10));
+        assertThat(empty.totalSlots(), equalTo(10));
+        assertFalse(empty.isFull());
+        assertTrue(empty.isEmpty());
+        assertThat(empty.iterator().hasNext(), is(false));
+    }
+
+    @Test
+    public void testMatchesInventory()
+    {
+        List<ItemStack> stacksToAdd = Arrays.asList(
+            new ItemStack(testItems[1], 4),
+            new ItemStack(testItems[0], 12),
+            new ItemStack(testItems[1], 3),
+            new ItemStack(testItems[2], 1)
+        );
+
+        Inventory expected = new Inventory(2);
+        CompactInventory actual = new CompactInventory(catalog, 2);
+
+        for (ItemStack stack : stacksToAdd) {
+            assertThat(actual.addItems(stack), is(expected.addItems(stack.clone())));
+        }
+
+        assertThat(actual.isFull(), is(true));
+        assertThat(actual.utilizedSlots(), equalTo(2));
+        assertThat(actual.toString(), is(equalTo(expected.toString())));
+        assertThat(actual.hashCode(), equalTo(expected.hashCode()));
+        assertThat(actual.toInventory(), is(equalTo(expected)));
+
+        assertThat(actual.idAt(0), equalTo(1));
+        assertThat(actual.quantityAt(0), equalTo(7));
+        assertThrows(IndexOutOfBoundsException.class, () -> actual.idAt(2));
+
+        Iterator<ItemStack> it = actual.iterator();
+        assertThat(it.next().size(), equalTo(7));
+        assertThat(it.next().getItem(), is(equalTo(testItems[0])));
+        assertThat(it.hasNext(), is(false));
+    }
+
+    @Test
+    public void testFindMatchingItemStackIsACopy()
+    {
+        CompactInventory aBag = new CompactInventory(catalog, 4);
+        aBag.addItems(1, 5);
+
+        ItemStack match = aBag.findMatchingItemStack(new ItemStack(testItems[1]));
+        assertThat(match.size(), equalTo(5));
+        assertThat(match.getItem().getName(), is(equalTo("Tomato")));
+
+        match.addItems(100);
+        assertThat(aBag.quantityAt(0), equalTo(5));
+
+        assertThat(aBag.findMatchingItemStack(new ItemStack(testItems[2])), is(nullValue()));
+    }
+
+    @Test
+    public void testClone()
+    {
+        CompactInventory original = new CompactInventory(catalog, 4);
+        original.addItems(0, 1);
+        original.addItems(2, 2);
+
+        CompactInventory copy = original.clone();
+        assertThat(copy, is(equalTo(original)));
+        assertThat(copy, is(not(sameInstance(original))));
+
+        copy.addItems(0, 10);
+        copy.addItems(1, 10);
+
+        assertThat(original.utilizedSlots(), equalTo(2));
+        assertThat(original.quantityAt(0), equalTo(1));
+        assertThat(copy.quantityAt(0), equalTo(11));
+    }
+
+    @Test
+    public void testUnknownItem()
+    {
+        CompactInventory aBag = new CompactInventory(catalog, 4);
+
+        assertThrows(IllegalArgumentException.class, () -> aBag.addItems(1337, 1));
+        assertThat(aBag.isEmpty(), is(true));
+    }
+
+    @Test
+    public void testBulkScans()
+    {
+        CompactInventory inv = new CompactInventory(catalog, 3);
+
+        assertThat(inv.totalQuantity(), is(0L));
+        assertThat(inv.slotsBelow(10).length, is(0));
+        assertFalse(inv.containsAny(0, 1, 2));
+
+        inv.addItems(1, 4);
+        inv.addItems(0, 12);
+        inv.addItems(1, 3);
+        inv.addItems(2, 1);
+
+        assertThat(inv.totalQuantity(), is(20L));
+        assertThat(inv.countSlotsBelow(8), is(2));
+        assertThat(inv.slotsBelow(8), is(new int[] {0, 2}));
+        assertThat(inv.slotsBelow(1).length, is(0));
+        assertTrue(inv.containsAny(2));
+        assertTrue(inv.containsAny(7, 0));
+        assertFalse(inv.containsAny(7, 8));
+    }
+
+    @Test
+    public void testForEachSlotAndCursor()
+    {
+        CompactInventory inv = new CompactInventory(catalog, 3);
+        inv.addItems(1, 4);
+        inv.addItems(0, 12);
+        inv.addItems(1, 3);
+
+        List<String> visited = new ArrayList<>();
+        inv.forEachSlot((id, qty) -> visited.add(id + ":" + qty));
+        assertThat(visited, contains("1:7", "0:12"));
+
+        SlotCursor cursor = inv.cursor();
+        assertThrows(IllegalStateException.class, cursor::id);
+
+        for (int pass = 0; pass < 2; ++pass) {
+            assertTrue(cursor.next());
+            assertThat(cursor.id(), is(1));
+            assertThat(cursor.quantity(), is(7));
+            assertThat(cursor.name(), is("Tomato"));
+
+            assertTrue(cursor.next());
+            assertThat(cursor.id(), is(0));
+            assertThat(cursor.quantity(), is(12));
+
+            assertFalse(cursor.next());
+            assertThrows(IllegalStateException.class, cursor::name);
+
+            cursor.reset();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package items;
+
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+
+/**
+ * 1 - Does this piece of code perform the operations
+ *     it was designed to perform?
+ *
+ * 2 - Does this piece of code do something it was not
+ *     designed to perform?
+ */
+@SuppressWarnings({
+    "PMD.AtLeastOneConstructor",
+    "PMD.BeanMembersShouldSerialize",
+    "PMD.JUnitAssertionsShouldIncludeMessage",
+    "PMD.JUnitTestContainsTooManyAsserts",
+    "PMD.LocalVariableCouldBeFinal",
+    "PMD.MethodArgumentCouldBeFinal",
+    "PMD.LawOfDemeter"
+})
+@TestMethodOrder(MethodOrderer.MethodName.class)
+public class TestConcurrentInventory
+{
+    private static final int NUM_THREADS = 8;
+    private static final int ADDS_PER_THREAD = 20000;
+    private static final int NUM_ITEM_TYPES = 40;
+
+    @Test
+    public void testSingleThreadMatchesInventory()
+    {
+        Item[] testItems = {
+            new Item(0, "Diamond Boots"),
+            new Item(1, "Tomato"),
+            new Item(2, "Unbreaking Gold Shovel")
+        };
+
+        Inventory expected = new Inventory(2);
+        ConcurrentInventory actual = new ConcurrentInventory(2);
+
+        for (int i = 0; i < 6; ++i) {
+            ItemStack stack = new ItemStack(testItems[i % 3], i + 1);
+
+            assertThat(actual.addItems(stack), is(expected.addItems(stack.clone())));
+        }
+
+        assertThat(actual.isFull(), is(true));
+        assertThat(actual.snapshot(), is(equalTo(expected)));
+        assertThat(actual.toString(), is(equalTo(expected.toString())));
+    }
+
+    /**
+     * Many threads add to one Inventory with more Item types than slots.
+     * Every slot must hold exactly the quantity that was reported as
+     * stored--and capacity must never be exceeded.
+     */
+    @Test
+    public void testConcurrentAdds()
+        throws Exception
+    {
+        ConcurrentInventory inv = new ConcurrentInventory(NUM_ITEM_TYPES / 2);
+        ExecutorService pool = Executors.newFixedThreadPool(NUM_THREADS);
+        List<Future<long[]>> results = new ArrayList<>();
+
+        for (int t = 0; t < NUM_THREADS; ++t) {
+            final long seed = t;
+
+            results.add(
+                pool.submit(
+                    () -> {
+                        Random random = new Random(seed);
+                        long[] stored = new long[NUM_ITEM_TYPES];
+
+                        for (int i = 0; i < ADDS_PER_THREAD; ++i) {
+                            final int id = random.nextInt(NUM_ITEM_TYPES);
+
+                            if (inv.addItems(new ItemStack(new Item(id, "Item"), 1))) {
+                                ++stored[id];
+                            }
+                        }
+
+                        return stored;
+                    }
+                )
+            );
+        }
+
+        long[] totals = new long[NUM_ITEM_TYPES];
+        for (Future<long[]> result : results) {
+            long[] stored = result.get();
+
+            for (int id = 0; id < NUM_ITEM_TYPES; ++id) {
+                totals[id] += stored[id];
+            }
+        }
+        pool.shutdown();
+
+        assertThat(inv.utilizedSlots(), equalTo(NUM_ITEM_TYPES / 2));
+        assertThat(inv.isFull(), is(true));
+
+        int slotCount = 0;
+        for (ItemStack stack : inv) {
+            ++slotCount;
+            assertThat((long) stack.size(), equalTo(totals[stack.getItem().getID()]));
+        }
+
+        assertThat(slotCount, equalTo(NUM_ITEM_TYPES / 2));
+    }
+}
@@ -11,8 +11,11 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 
 import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
 
 
 /**
@@ -219,6 +222,103 @@ public class TestInventory
         assertThat(it.hasNext(), is(false));
     }
 
+    /**
+     * Look up stacks by Item id after a mix of new slots and merges.
+     */
+    @Test
+    public void testFindMatchingItemStack()
+    {
+        Inventory aBag = new Inventory(4);
+
+        aBag.addItems(new ItemStack(testItems[0], 3));
+        aBag.addItems(new ItemStack(testItems[2], 5));
+        aBag.addItems(new ItemStack(testItems[0], 4));
+
+        ItemStack match = aBag.findMatchingItemStack(new ItemStack(testItems[0]));
+        assertThat(match, is(notNullValue()));
+        assertThat(match.size(), is(equalTo(7)));
+
+        match = aBag.findMatchingItemStack(new ItemStack(testItems[2]));
+        assertThat(match, is(notNullValue()));
+        assertThat(match.size(), is(equalTo(5)));
+
+        assertThat(aBag.findMatchingItemStack(new ItemStack(testItems[1])), is(nullValue()));
+        assertThat(aBag.utilizedSlots(), equalTo(2));
+    }
+
+    /**
+     * Published snapshots must not change when the Inventory does.
+     */
+    @Test
+    public void testPublishSnapshot()
+    {
+        Inventory aBag = new Inventory(4);
+        assertThat(aBag.latestSnapshot(), is(nullValue()));
+
+        aBag.addItems(new ItemStack(testItems[0], 3));
+        InventorySnapshot first = aBag.publishSnapshot();
+
+        assertThat(aBag.latestSnapshot(), is(sameInstance(first)));
+        assertThat(aBag.publishSnapshot(), is(sameInstance(first)));
+        assertThat(first.toString(), is(equalTo(aBag.toString())));
+
+        aBag.addItems(new ItemStack(testItems[0], 4));
+        aBag.addItems(new ItemStack(testItems[1], 1));
+
+        assertThat(first.utilizedSlots(), equalTo(1));
+        assertThat(first.iterator().next().size(), equalTo(3));
+
+        InventorySnapshot second = aBag.publishSnapshot();
+        assertThat(second.version(), is(greaterThan(first.version())));
+        assertThat(second.utilizedSlots(), equalTo(2));
+        assertThat(second.emptySlots(), equalTo(2));
+        assertThat(second.toString(), is(equalTo(aBag.toString())));
+
+        // Changes through a handed-out stack are picked up too
+        aBag.findMatchingItemStack(new ItemStack(testItems[1])).addItems(6);
+
+        InventorySnapshot third = aBag.publishSnapshot();
+        assertThat(third, is(not(sameInstance(second))));
+        assertThat(third.toString(), is(equalTo(aBag.toString())));
+        assertThat(second.toString(), is(not(equalTo(aBag.toString()))));
+    }
+
+    /**
+     * A batch add must match adding each stack one at a time--including
+     * merges, new slots and discards.
+     */
+    @Test
+    public void testAddItemsBulk()
+    {
+        List<ItemStack> batch = Arrays.asList(
+            new ItemStack(testItems[0], 1),
+            new ItemStack(testItems[1], 2),
+            new ItemStack(testItems[0], 3),
+            new ItemStack(testItems[2], 4),
+            new ItemStack(testItems[1], 5),
+            new ItemStack(testItems[2], 6)
+        );
+
+        Inventory oneAtATime = new Inventory(2);
+        oneAtATime.addItems(new ItemStack(testItems[1], 10));
+
+        Inventory bulk = new Inventory(2);
+        bulk.addItems(new ItemStack(testItems[1], 10));
+
+        boolean[] expected = new boolean[batch.size()];
+        for (int i = 0; i < batch.size(); ++i) {
+            expected[i] = oneAtATime.addItems(batch.get(i).clone());
+        }
+
+        boolean[] actual = bulk.addItems(batch);
+
+        assertThat(actual, is(equalTo(expected)));
+        assertThat(actual, is(equalTo(new boolean[] {true, true, true, false, true, false})));
+        assertThat(bulk.toString(), is(equalTo(oneAtATime.toString())));
+        assertThat(bulk.findMatchingItemStack(batch.get(1)).size(), equalTo(17));
+        assertThat(bulk.findMatchingItemStack(batch.get(0)).size(), equalTo(4));
+    }
+
     @Test
     public void testCloneForEmpty()
     {
@@ -304,6 +404,96 @@ public class TestInventory
         assertThat(invWith8Slots, is(equalTo(copy)));
     }
 
+    /**
+     * Changes to either the original or the (copy-on-write) clone must not
+     * be visible in the other.
+     */
+    @Test
+    public void testCloneIsIndependent()
+    {
+        Inventory original = new Inventory(4);
+        original.addItems(new ItemStack(testItems[0], 1));
+        original.addItems(new ItemStack(testItems[1], 2));
+
+        Inventory copy = original.clone();
+        String originalAsStr = original.toString();
+
+        copy.addItems(new ItemStack(testItems[0], 10));
+        copy.addItems(new ItemStack(testItems[2], 3));
+        copy.iterator().next().addItems(100);
+
+        assertThat(original.toString(), is(equalTo(originalAsStr)));
+        assertThat(original.utilizedSlots(), equalTo(2));
+        assertThat(copy.utilizedSlots(), equalTo(3));
+        assertThat(copy.findMatchingItemStack(new ItemStack(testItems[0])).size(), equalTo(111));
+
+        original.findMatchingItemStack(new ItemStack(testItems[1])).addItems(5);
+
+        assertThat(original.findMatchingItemStack(new ItemStack(testItems[1])).size(), equalTo(7));
+        assertThat(copy.findMatchingItemStack(new ItemStack(testItems[1])).size(), equalTo(2));
+    }
+
+    /**
+     * Stack references taken before *clone* must reach into neither
+     * Inventory--each is copied once, by the first *clone* after it escaped.
+     */
+    @Test
+    public void testCloneDetachesEarlierReferences()
+    {
+        ItemStack added = new ItemStack(testItems[0], 1);
+
+        Inventory original = new Inventory(4);
+        original.addItemStackNoCheck(added);
+        original.addItems(new ItemStack(testItems[1], 2));
+        original.addItems(new ItemStack(testItems[2], 3));
+
+        ItemStack found = original.findMatchingItemStack(new ItemStack(testItems[1]));
+        Iterator<ItemStack> it = original.iterator();
+        it.next();
+        it.next();
+        ItemStack iterated = it.next();
+
+        // Live until the clone
+        found.addItems(1);
+        assertThat(original.findMatchingItemStack(new ItemStack(testItems[1])).size(), equalTo(3));
+
+        Inventory copy = original.clone();
+        String originalAsStr = original.toString();
+        String copyAsStr = copy.toString();
+
+        added.addItems(10);
+        found.addItems(20);
+        iterated.addItems(30);
+
+        assertThat(copy.toString(), is(equalTo(copyAsStr)));
+        assertThat(original.toString(), is(equalTo(originalAsStr)));
+        assertThat(original.findMatchingItemStack(new ItemStack(testItems[1])), is(not(sameInstance(found))));
+
+        // A second clone copies nothing--but still isolates new references
+        ItemStack foundAgain = original.findMatchingItemStack(new ItemStack(testItems[0]));
+        Inventory second = original.clone();
+        foundAgain.addItems(5);
+
+        assertThat(second.findMatchingItemStack(new ItemStack(testItems[0])).size(), equalTo(1));
+        assertThat(original.findMatchingItemStack(new ItemStack(testItems[0])).size(), equalTo(1));
+        assertThat(copy.findMatchingItemStack(new ItemStack(testItems[2])).size(), equalTo(3));
+    }
+
+    @Test
+    public void testAccepts()
+    {
+        Inventory inv = new Inventory(1);
+
+        assertTrue(inv.accepts(new ItemStack(testItems[0], 1)));
+        assertThat(inv.utilizedSlots(), equalTo(0));
+
+        inv.addItems(new ItemStack(testItems[0], 1));
+
+        assertTrue(inv.accepts(new ItemStack(testItems[0], 5)));
+        assertFalse(inv.accepts(new ItemStack(testItems[1], 1)));
+        assertThat(inv.addItems(new ItemStack(testItems[1], 1)), is(false));
+    }
+
     @Test
     public void testMergeStacks()
     {
@@ -347,5 +537,165 @@ public class TestInventory
         assertThat(aBagAsStr, stringContainsInOrder(Arrays.asList("3", "of", "4", "slots")));
         assertThat(aBagAsStr, stringContainsInOrder(itemsAsStrings));
     }
-}
 
+    @Test
+    public void testStream()
+    {
+        Inventory inv = new Inventory(1000);
+        for (int id = 0; id < 1000; ++id) {
+            inv.addItems(new ItemStack(new Item(id, "Item " + id), id));
+        }
+
+        Spliterator<ItemStack> split = inv.spliterator();
+        assertTrue(split.hasCharacteristics(Spliterator.SIZED));
+        assertTrue(split.hasCharacteristics(Spliterator.SUBSIZED));
+        assertTrue(split.hasCharacteristics(Spliterator.ORDERED));
+        assertThat(split.estimateSize(), is(1000L));
+
+        Spliterator<ItemStack> prefix = split.trySplit();
+        assertThat(prefix.estimateSize() + split.estimateSize(), is(1000L));
+        assertThat(prefix.estimateSize(), is(500L));
+
+        List<ItemStack> expected = new ArrayList<>();
+        inv.forEach(expected::add);
+
+        assertThat(inv.stream().collect(Collectors.toList()), is(expected));
+        assertThat(inv.parallelStream().collect(Collectors.toList()), is(expected));
+        assertThat(inv.parallelStream().mapToLong(ItemStack::size).sum(), is(499500L));
+        assertThat(EMPTY_INVENTORY.stream().count(), is(0L));
+    }
+
+    /**
+     * Streams read the slots in place--a clone taken afterwards still shares
+     * every stack instead of copying them.
+     */
+    @Test
+    public void testCloneStaysCheapAfterStream()
+    {
+        Inventory original = new Inventory(3);
+        original.addItems(new ItemStack(testItems[0], 1));
+        original.addItems(new ItemStack(testItems[1], 2));
+
+        // Detach the added stacks (which their callers may still hold)
+        original.clone();
+
+        List<ItemStack> streamed = original.parallelStream().collect(Collectors.toList());
+        assertThat(Inventory.streamAll(Arrays.asList(original), true).count(), is(2L));
+
+        Inventory copy = original.clone();
+        List<ItemStack> fromCopy = copy.stream().collect(Collectors.toList());
+
+        assertThat(fromCopy, hasSize(2));
+        assertThat(fromCopy.get(0), is(sameInstance(streamed.get(0))));
+        assertThat(fromCopy.get(1), is(sameInstance(streamed.get(1))));
+
+        // Changing the copy still leaves the original alone
+        copy.addItems(new ItemStack(testItems[0], 10));
+        assertThat(copy.stream().mapToInt(ItemStack::size).sum(), is(13));
+        assertThat(original.stream().mapToInt(ItemStack::size).sum(), is(3));
+    }
+
+    @Test
+    public void testStreamAll()
+    {
+        List<Inventory> inventories = new ArrayList<>();
+        List<ItemStack> expected = new ArrayList<>();
+
+        // Many small (and empty) Inventories and a few large ones
+        for (int i = 0; i < 200; ++i) {
+            final int size = i % 50 == 7 ? 400 : i % 3;
+            Inventory inv = new Inventory(size);
+
+            for (int id = 0; id < size; ++id) {
+                inv.addItems(new ItemStack(new Item(id, "Item " + id), i));
+            }
+
+            inventories.add(inv);
+            inv.forEach(expected::add);
+        }
+
+        inventories.add(new Inventory(0));
+
+        assertThat(Inventory.streamAll(inventories, false).collect(Collectors.toList()), is(expected));
+        assertThat(Inventory.streamAll(inventories, true).collect(Collectors.toList()), is(expected));
+        assertThat(Inventory.streamAll(new ArrayList<>(), true).count(), is(0L));
+
+        // Every split boundary (however deep) must visit each slot once
+        Spliterator<ItemStack> split = Inventory.streamAll(inventories, false).spliterator();
+        List<Spliterator<ItemStack>> parts = new ArrayList<>();
+        parts.add(split);
+
+        for (int depth = 0; depth < 8; ++depth) {
+            List<Spliterator<ItemStack>> next = new ArrayList<>();
+
+            for (Spliterator<ItemStack> part : parts) {
+                final long size = part.estimateSize();
+                Spliterator<ItemStack> prefix = part.trySplit();
+
+                if (prefix != null) {
+                    assertThat(prefix.estimateSize() + part.estimateSize(), is(size));
+                    next.add(prefix);
+                }
+
+                next.add(part);
+            }
+
+            parts = next;
+        }
+
+        List<ItemStack> actual = new ArrayList<>();
+        for (int i = 0; i < parts.size(); ++i) {
+            // Mix tryAdvance and forEachRemaining
+            if (i % 2 == 0) {
+                parts.get(i).tryAdvance(actual::add);
+            }
+
+            parts.get(i).forEachRemaining(actual::add);
+        }
+
+        assertThat(actual.size(), is(expected.size()));
+        for (int i = 0; i < actual.size(); ++i) {
+            assertThat(actual.get(i), is(sameInstance(expected.get(i))));
+        }
+    }
+
+    @Test
+    public void testForEachSlotAndCursor()
+    {
+        Inventory inv = new Inventory(3);
+        inv.addItems(new ItemStack(testItems[1], 4));
+        inv.addItems(new ItemStack(testItems[0], 12));
+        inv.addItems(new ItemStack(testItems[1], 3));
+
+        List<String> visited = new ArrayList<>();
+        inv.forEachSlot((id, qty) -> visited.add(id + ":" + qty));
+        assertThat(visited, contains("1:7", "0:12"));
+
+        SlotCursor cursor = inv.cursor();
+        assertThrows(IllegalStateException.class, cursor::id);
+
+        for (int pass = 0; pass < 2; ++pass) {
+            assertTrue(cursor.next());
+            assertThat(cursor.id(), is(1));
+            assertThat(cursor.quantity(), is(7));
+            assertThat(cursor.name(), is("Tomato"));
+
+            assertTrue(cursor.next());
+            assertThat(cursor.id(), is(0));
+            assertThat(cursor.name(), is("Diamond Boots"));
+
+            assertFalse(cursor.next());
+            assertFalse(cursor.next());
+            assertThrows(IllegalStateException.class, cursor::quantity);
+
+            cursor.reset();
+        }
+
+        // Neither claims shared stacks
+        Inventory copy = inv.clone();
+        copy.forEachSlot((id, qty) -> { });
+        assertTrue(copy.cursor().next());
+        copy.addItems(new ItemStack(testItems[1], 1));
+        assertThat(inv.findMatchingItemStack(new ItemStack(testItems[1], 1)).size(), is(7));
+    }
+}
@@ -0,0 +1,253 @@
+package items;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+
+/**
+ * 1 - Does this piece of code perform the operations
+ *     it was designed to perform?
+ *
+ * 2 - Does this piece of code do something it was not
+ *     designed to perform?
+ */
+@SuppressWarnings({
+    "PMD.AtLeastOneConstructor",
+    "PMD.BeanMembersShouldSerialize",
+    "PMD.JUnitAssertionsShouldIncludeMessage",
+    "PMD.JUnitTestContainsTooManyAsserts",
+    "PMD.LocalVariableCouldBeFinal",
+    "PMD.MethodArgumentCouldBeFinal",
+    "PMD.LawOfDemeter"
+})
+@TestMethodOrder(MethodOrderer.MethodName.class)
+public class TestInventoryIndex
+{
+    private Item[] testItems;
+
+    @BeforeEach
+    public void setUp()
+    {
+        testItems = new Item[] {
+            new Item(0, "Diamond Boots"),
+            new Item(1, "Tomato"),
+            new Item(2, "Unbreaking Gold Shovel")
+        };
+    }
+
+    @Test
+    public void testEmpty()
+    {
+        InventoryIndex index = new InventoryIndex();
+
+        assertThat(index.size(), is(0));
+        assertThat(index.holdersOf(1), is(empty()));
+        assertThat(index.holderCount(1), is(0));
+        assertThat(index.totalQuantity(1), is(0L));
+        assertThat(index.quantityIn(1, 0), is(0L));
+        assertThat(index.topHolders(1, 3), is(empty()));
+    }
+
+    @Test
+    public void testRegisterExistingContents()
+    {
+        Inventory inv = new Inventory(2);
+        inv.addItems(new ItemStack(testItems[0], 3));
+        inv.addItems(new ItemStack(testItems[1], 4));
+
+        InventoryIndex index = new InventoryIndex();
+        final int handle = index.register(inv);
+
+        assertThat(handle, is(0));
+        assertThat(index.inventory(handle), is(sameInstance(inv)));
+        assertThat(index.quantityIn(0, handle), is(3L));
+        assertThat(index.quantityIn(1, handle), is(4L));
+        assertThat(index.holderCount(2), is(0));
+
+        assertThrows(IllegalStateException.class, () -> new InventoryIndex().register(inv));
+    }
+
+    @Test
+    public void testTracksAdds()
+    {
+        InventoryIndex index = new InventoryIndex();
+        Inventory first = new Inventory(1);
+        Inventory second = new Inventory(2);
+        index.register(first);
+        index.register(second);
+
+        first.addItems(new ItemStack(testItems[1], 2));
+        first.addItems(new ItemStack(testItems[1], 3));
+        first.addItems(new ItemStack(testItems[2], 9));   // Discarded
+        second.addItems(Arrays.asList(
+            new ItemStack(testItems[2], 1),
+            new ItemStack(testItems[1], 7),
+            new ItemStack(testItems[2], 1),
+            new ItemStack(testItems[0], 5)                  // Discarded
+        ));
+
+        assertThat(index.totalQuantity(1), is(12L));
+        assertThat(index.totalQuantity(2), is(2L));
+        assertThat(index.totalQuantity(0), is(0L));
+        assertThat(index.quantityIn(1, 0), is(5L));
+        assertThat(index.quantityIn(1, 1), is(7L));
+        assertThat(index.quantityIn(2, 0), is(0L));
+
+        List<InventoryIndex.Holding> holders = index.holdersOf(1);
+        assertThat(holders, hasSize(2));
+        assertThat(holders.get(0).getInventory(), is(sameInstance(first)));
+        assertThat(holders.get(0).getQuantity(), is(5L));
+        assertThat(holders.get(1).getInventory(), is(sameInstance(second)));
+
+        // A clone is not indexed
+        Inventory copy = second.clone();
+        copy.addItems(new ItemStack(testItems[1], 100));
+        assertThat(index.totalQuantity(1), is(12L));
+    }
+
+    @Test
+    public void testTopHolders()
+    {
+        InventoryIndex index = new InventoryIndex();
+        Random random = new Random(21);
+        long[] expected = new long[200];
+
+        for (int i = 0; i < expected.length; ++i) {
+            Inventory inv = new Inventory(1);
+            index.register(inv);
+
+            if (i % 3 != 0) {
+                final int qty = 1 + random.nextInt(50);
+                inv.addItems(new ItemStack(testItems[1], qty));
+                expected[i] = qty;
+            }
+        }
+
+        List<InventoryIndex.Holding> top = index.topHolders(1, 10);
+        assertThat(top, hasSize(10));
+
+        long[] sorted = expected.clone();
+        Arrays.sort(sorted);
+
+        for (int i = 0; i < top.size(); ++i) {
+            InventoryIndex.Holding holding = top.get(i);
+
+            assertThat(holding.getQuantity(), is(sorted[sorted.length - 1 - i]));
+            assertThat(holding.getQuantity(), is(expected[holding.getHandle()]));
+
+            // Ties are broken by order of first add
+            if (i > 0 && holding.getQuantity() == top.get(i - 1).getQuantity()) {
+                assertThat(holding.getHandle(), is(greaterThan(top.get(i - 1).getHandle())));
+            }
+        }
+
+        assertThat(index.topHolders(1, 1000), hasSize(index.holderCount(1)));
+        assertThat(index.topHolders(1, 0), is(empty()));
+    }
+
+    @Test
+    public void testAggregates()
+    {
+        InventoryIndex index = new InventoryIndex();
+
+        Inventory prefilled = new Inventory(4);
+        prefilled.addItems(new ItemStack(testItems[0], 3));
+        index.register(prefilled);
+
+        Inventory small = new Inventory(2);
+        index.register(small);
+
+        assertThat(index.totalSlots(), is(6L));
+        assertThat(index.utilizedSlots(), is(1L));
+        assertThat(index.emptySlots(), is(5L));
+        assertThat(index.totalQuantity(), is(3L));
+        assertThat(index.fillHistogram()[0], is(1));
+        assertThat(index.fillHistogram()[2], is(1));
+
+        small.addItems(new ItemStack(testItems[1], 2));
+        small.addItems(new ItemStack(testItems[1], 5));
+        small.addItems(new ItemStack(testItems[2], 1));
+        small.addItems(new ItemStack(testItems[0], 8));     // Discarded
+        prefilled.addItems(Arrays.asList(
+            new ItemStack(testItems[0], 1),
+            new ItemStack(testItems[2], 6),
+            new ItemStack(testItems[2], 4)
+        ));
+
+        assertThat(index.quantityOf(0), is(14L));
+        assertThat(index.quantityOf(1), is(8L));
+        assertThat(index.totalQuantity(), is(22L));
+        assertThat(index.utilizedSlots(), is(4L));
+        assertThat(index.emptySlots(), is(2L));
+
+        int[] histogram = index.fillHistogram();
+        assertThat(histogram.length, is(InventoryIndex.FILL_BUCKETS));
+        assertThat(histogram[5], is(1));
+        assertThat(histogram[10], is(1));
+        assertThat(Arrays.stream(histogram).sum(), is(2));
+
+        assertThat(index.fullest(1)[0], is(1));
+        assertThat(index.fullest(5).length, is(2));
+        assertThat(index.fullest(5)[1], is(0));
+
+        assertThrows(IndexOutOfBoundsException.class, () -> index.quantityOf(2));
+    }
+
+    @Test
+    public void testConcurrentAdds()
+        throws InterruptedException
+    {
+        final int threads = 4;
+        final int rounds = 1000;
+
+        InventoryIndex index = new InventoryIndex();
+        Inventory[] invs = new Inventory[threads];
+
+        for (int i = 0; i < threads; ++i) {
+            invs[i] = new Inventory(testItems.length);
+            index.register(invs[i]);
+        }
+
+        // One thread per Inventory--all adding the same Items
+        Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; ++i) {
+            final Inventory inv = invs[i];
+
+            workers[i] = new Thread(() -> {
+                for (int round = 0; round < rounds; ++round) {
+                    inv.addItems(new ItemStack(testItems[round % testItems.length], 1));
+                }
+            });
+            workers[i].start();
+        }
+
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertThat(index.totalQuantity(), is((long) threads * rounds));
+        assertThat(index.utilizedSlots(), is((long) threads * testItems.length));
+        assertThat(index.fillHistogram()[10], is(threads));
+
+        for (int handle = 0; handle < threads; ++handle) {
+            assertThat(index.quantityOf(handle), is((long) rounds));
+        }
+
+        long perItem = 0;
+        for (Item item : testItems) {
+            assertThat(index.holderCount(item.getID()), is(threads));
+            perItem += index.totalQuantity(item.getID());
+        }
+        assertThat(perItem, is((long) threads * rounds));
+    }
+}
@@ -0,0 +1,90 @@
+package items;
+
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * 1 - Does this piece of code perform the operations
+ *     it was designed to perform?
+ *
+ * 2 - Does this piece of code do something it was not
+ *     designed to perform?
+ */
+@SuppressWarnings({
+    "PMD.AtLeastOneConstructor",
+    "PMD.BeanMembersShouldSerialize",
+    "PMD.JUnitAssertionsShouldIncludeMessage",
+    "PMD.JUnitTestContainsTooManyAsserts",
+    "PMD.LocalVariableCouldBeFinal",
+    "PMD.MethodArgumentCouldBeFinal",
+    "PMD.LawOfDemeter"
+})
+@TestMethodOrder(MethodOrderer.MethodName.class)
+public class TestItemCatalog
+{
+    @Test
+    public void testEmpty()
+    {
+        ItemCatalog catalog = new ItemCatalog(Collections.emptyList());
+
+        assertThat(catalog.size(), equalTo(0));
+        assertThat(catalog.find(0), is(nullValue()));
+        assertThat(catalog.iterator().hasNext(), is(false));
+    }
+
+    @Test
+    public void testDenseIds()
+    {
+        List<Item> items = Arrays.asList(
+            new Item(3, "Bow Tie"),
+            new Item(1, "HP Potion"),
+            new Item(2, "MP Potion")
+        );
+
+        ItemCatalog catalog = new ItemCatalog(items);
+
+        assertThat(catalog.size(), equalTo(3));
+        assertThat(catalog.find(1).getName(), is(equalTo("HP Potion")));
+        assertThat(catalog.find(3).getName(), is(equalTo("Bow Tie")));
+        assertThat(catalog.find(0), is(nullValue()));
+        assertThat(catalog.find(4), is(nullValue()));
+        assertThat(catalog.find(-1), is(nullValue()));
+
+        assertThat(
+            catalog.asList(),
+            contains(items.get(1), items.get(2), items.get(0))
+        );
+
+        // The catalog holds its own immutable (canonical) Items
+        assertThat(catalog.find(1).isImmutable(), is(true));
+        assertThat(catalog.find(1), is(sameInstance(catalog.find(1))));
+        assertThat(items.get(1).isImmutable(), is(false));
+    }
+
+    @Test
+    public void testSparseIds()
+    {
+        ItemCatalog catalog = new ItemCatalog(
+            Arrays.asList(
+                new Item(9001, "Unbreaking Gold Shovel"),
+                new Item(1, "Tomato"),
+                new Item(Integer.MAX_VALUE, "Diamond Boots")
+            )
+        );
+
+        assertThat(catalog.size(), equalTo(3));
+        assertThat(catalog.contains(1), is(true));
+        assertThat(catalog.contains(2), is(false));
+        assertThat(catalog.find(9001).getName(), is(equalTo("Unbreaking Gold Shovel")));
+        assertThat(catalog.find(Integer.MAX_VALUE).getName(), is(equalTo("Diamond Boots")));
+    }
+}
@@ -96,6 +96,35 @@ public class TestItemStack
         assertThat(originalStack.hashCode(), equalTo(aCopy.hashCode()));
     }
 
+    @Test
+    public void testImmutableItemIsShared()
+    {
+        Item canonical = Item.immutable(1, "Tomato");
+
+        ItemStack aStack = new ItemStack(canonical, 3);
+        ItemStack aCopy  = aStack.clone();
+
+        assertThat(aStack.getItem(), is(sameInstance(canonical)));
+        assertThat(aCopy.getItem(), is(sameInstance(canonical)));
+        assertThat(aCopy.size(), equalTo(3));
+
+        assertThrows(UnsupportedOperationException.class, () -> canonical.setName("Potato"));
+        assertThrows(UnsupportedOperationException.class, () -> canonical.setID(2));
+    }
+
+    @Test
+    public void testMutableItemIsCopied()
+    {
+        ItemStack aStack = new ItemStack(tomato, 3);
+        ItemStack aCopy  = aStack.clone();
+
+        assertThat(aStack.getItem(), is(not(sameInstance(tomato))));
+        assertThat(aCopy.getItem(), is(not(sameInstance(aStack.getItem()))));
+
+        tomato.setName("Potato");
+        assertThat(aStack.getItem().getName(), is(equalTo("Tomato")));
+    }
+
     @Test
     public void testAddItemsStackable()
     {
@@ -0,0 +1,165 @@
+package items;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+
+/**
+ * 1 - Does this piece of code perform the operations
+ *     it was designed to perform?
+ *
+ * 2 - Does this piece of code do something it was not
+ *     designed to perform?
+ */
+@SuppressWarnings({
+    "PMD.AtLeastOneConstructor",
+    "PMD.BeanMembersShouldSerialize",
+    "PMD.JUnitAssertionsShouldIncludeMessage",
+    "PMD.JUnitTestContainsTooManyAsserts",
+    "PMD.LocalVariableCouldBeFinal",
+    "PMD.MethodArgumentCouldBeFinal",
+    "PMD.LawOfDemeter"
+})
+@TestMethodOrder(MethodOrderer.MethodName.class)
+public class TestMetrics
+{
+    private Item[] testItems;
+
+    @BeforeEach
+    public void setUp()
+    {
+        testItems = new Item[] {
+            new Item(0, "Diamond Boots"),
+            new Item(1, "Tomato"),
+            new Item(2, "Unbreaking Gold Shovel")
+        };
+
+        Metrics.resetAll();
+        Metrics.enable(true);
+    }
+
+    @AfterEach
+    public void tearDown()
+    {
+        Metrics.enable(false);
+        Metrics.resetAll();
+    }
+
+    @Test
+    public void testDisabled()
+    {
+        Metrics.enable(false);
+
+        Inventory inv = new Inventory(1);
+        inv.addItems(new ItemStack(testItems[0], 1));
+        inv.addItems(new ItemStack(testItems[1], 1));
+        Metrics.BATCH_ADD_TIME.record(1000);
+
+        assertThat(Metrics.ADDS.get(), is(0L));
+        assertThat(Metrics.DISCARDS.get(), is(0L));
+        assertThat(Metrics.BATCH_ADD_TIME.getCount(), is(0L));
+        assertThat(Metrics.startTimer(), is(0L));
+    }
+
+    @Test
+    public void testAddItems()
+    {
+        Inventory inv = new Inventory(2);
+        inv.addItems(new ItemStack(testItems[0], 1));
+        inv.addItems(new ItemStack(testItems[0], 2));
+        inv.addItems(new ItemStack(testItems[1], 3));
+        inv.addItems(new ItemStack(testItems[2], 4));
+
+        assertThat(Metrics.ADDS.get(), is(4L));
+        assertThat(Metrics.MERGES.get(), is(1L));
+        assertThat(Metrics.NEW_SLOTS.get(), is(2L));
+        assertThat(Metrics.DISCARDS.get(), is(1L));
+    }
+
+    @Test
+    public void testAddItemsBatch()
+    {
+        Inventory inv = new Inventory(2);
+        inv.addItems(new ItemStack(testItems[0], 1));
+        Metrics.resetAll();
+
+        inv.addItems(Arrays.asList(
+            new ItemStack(testItems[1], 1),
+            new ItemStack(testItems[0], 2),
+            new ItemStack(testItems[2], 3),
+            new ItemStack(testItems[1], 4),
+            new ItemStack(testItems[2], 5)
+        ));
+
+        assertThat(Metrics.ADDS.get(), is(5L));
+        assertThat(Metrics.MERGES.get(), is(2L));
+        assertThat(Metrics.NEW_SLOTS.get(), is(1L));
+        assertThat(Metrics.DISCARDS.get(), is(2L));
+    }
+
+    @Test
+    public void testBuckets()
+    {
+        long[] values = {0, 1, 31, 32, 33, 63, 64, 65, 1000, 123456789L, Long.MAX_VALUE};
+
+        for (long value : values) {
+            final int bucket = LatencyHistogram.bucketOf(value);
+
+            assertThat(LatencyHistogram.highestValueIn(bucket), is(greaterThanOrEqualTo(value)));
+
+            if (bucket > 0) {
+                assertThat(LatencyHistogram.highestValueIn(bucket - 1), is(lessThan(value)));
+            }
+        }
+
+        assertThat(LatencyHistogram.highestValueIn(LatencyHistogram.bucketOf(Long.MAX_VALUE)),
+            is(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testPercentiles()
+    {
+        LatencyHistogram histogram = new LatencyHistogram("test");
+
+        assertThat(histogram.getP50Nanos(), is(0L));
+
+        for (long value = 1; value <= 1000; ++value) {
+            histogram.record(value * 1000);
+        }
+
+        assertThat(histogram.getCount(), is(1000L));
+        assertThat(histogram.getMaxNanos(), is(1000000L));
+        assertThat(histogram.getMeanNanos(), is(500500.0));
+
+        // Each estimate is within ~3% (and never below the true value)
+        assertThat(histogram.getP50Nanos(), is(both(greaterThanOrEqualTo(500000L)).and(lessThan(516000L))));
+        assertThat(histogram.getP99Nanos(), is(both(greaterThanOrEqualTo(990000L)).and(lessThanOrEqualTo(1000000L))));
+        assertThat(histogram.getPercentile(100.0), is(1000000L));
+
+        histogram.reset();
+        assertThat(histogram.getCount(), is(0L));
+        assertThat(histogram.getMaxNanos(), is(0L));
+    }
+
+    @Test
+    public void testReport()
+    {
+        Metrics.UNKNOWN_IDS.add(7);
+
+        String report = Metrics.report();
+
+        assertThat(report, startsWith("Metrics:"));
+        assertThat(report, containsString("inventory.merges"));
+        assertThat(report, containsString("parser.linesPerSecond"));
+        assertThat(report, containsString("phase.parseInventories"));
+        assertThat(report, containsString(" 7" + System.lineSeparator()));
+    }
+}
@@ -0,0 +1,145 @@
+package items;
+
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Iterator;
+
+
+/**
+ * 1 - Does this piece of code perform the operations
+ *     it was designed to perform?
+ *
+ * 2 - Does this piece of code do something it was not
+ *     designed to perform?
+ *
+ * Every version of a PersistentInventory must stay unchanged after it is
+ * built upon.
+ */
+@SuppressWarnings({
+    "PMD.AtLeastOneConstructor",
+    "PMD.BeanMembersShouldSerialize",
+    "PMD.JUnitAssertionsShouldIncludeMessage",
+    "PMD.JUnitTestContainsTooManyAsserts",
+    "PMD.LocalVariableCouldBeFinal",
+    "PMD.MethodArgumentCouldBeFinal",
+    "PMD.LawOfDemeter",
+    "PMD.ShortVariable"
+})
+@TestMethodOrder(MethodOrderer.MethodName.class)
+public class TestPersistentInventory
+{
+    private Item[] testItems;
+
+    @BeforeEach
+    public void setUp()
+    {
+        testItems = new Item[] {
+            new Item(0, "Diamond Boots"),
+            new Item(1, "Tomato"),
+            new Item(2, "Unbreaking Gold Shovel")
+        };
+    }
+
+    @Test
+    public void testDefaultConstructor()
+    {
+        PersistentInventory empty = new PersistentInventory();
+
+        assertThat(empty.utilizedSlots(), equalTo(0));
+        assertThat(empty.emptySlots(), equalTo(10));
+        assertThat(empty.totalSlots(), equalTo(10));
+        assertFalse(empty.isFull());
+        assertTrue(empty.isEmpty());
+        assertThat(empty.iterator().hasNext(), is(false));
+    }
+
+    @Test
+    public void testMatchesInventory()
+    {
+        List<ItemStack> stacksToAdd = Arrays.asList(
+            new ItemStack(testItems[1], 4),
+            new ItemStack(testItems[0], 12),
+            new ItemStack(testItems[1], 3),
+            new ItemStack(testItems[2], 1)
+        );
+
+        Inventory expected = new Inventory(2);
+        PersistentInventory actual = new PersistentInventory(2);
+
+        for (ItemStack stack : stacksToAdd) {
+            PersistentInventory next = actual.addItems(stack);
+
+            assertThat(next != actual, is(expected.addItems(stack.clone())));
+            actual = next;
+        }
+
+        assertThat(actual.isFull(), is(true));
+        assertThat(actual.toString(), is(equalTo(expected.toString())));
+        assertThat(actual.hashCode(), equalTo(expected.hashCode()));
+        assertThat(actual.toInventory(), is(equalTo(expected)));
+        assertThat(PersistentInventory.of(expected), is(equalTo(actual)));
+
+        Iterator<ItemStack> it = actual.iterator();
+        assertThat(it.next().size(), equalTo(7));
+        assertThat(it.next().getItem(), is(equalTo(testItems[0])));
+        assertThat(it.hasNext(), is(false));
+    }
+
+    @Test
+    public void testOlderVersionsAreUnchanged()
+    {
+        PersistentInventory v0 = new PersistentInventory(4);
+        PersistentInventory v1 = v0.addItems(new ItemStack(testItems[0], 1));
+        PersistentInventory v2 = v1.addItems(new ItemStack(testItems[0], 5));
+        PersistentInventory v3 = v2.addItems(new ItemStack(testItems[2], 2));
+
+        assertThat(v0.isEmpty(), is(true));
+        assertThat(v1.findMatchingItemStack(new ItemStack(testItems[0])).size(), equalTo(1));
+        assertThat(v2.findMatchingItemStack(new ItemStack(testItems[0])).size(), equalTo(6));
+        assertThat(v2.utilizedSlots(), equalTo(1));
+        assertThat(v3.utilizedSlots(), equalTo(2));
+        assertThat(v2.findMatchingItemStack(new ItemStack(testItems[2])), is(nullValue()));
+    }
+
+    @Test
+    public void testFindMatchingItemStackIsACopy()
+    {
+        PersistentInventory aBag = new PersistentInventory(4)
+            .addItems(new ItemStack(testItems[1], 5));
+
+        ItemStack match = aBag.findMatchingItemStack(new ItemStack(testItems[1]));
+        match.addItems(100);
+
+        assertThat(aBag.findMatchingItemStack(match).size(), equalTo(5));
+        assertThat(aBag.iterator().next().size(), equalTo(5));
+    }
+
+    @Test
+    public void testManySlots()
+    {
+        final int count = 5000;
+
+        Inventory expected = new Inventory(count);
+        PersistentInventory actual = new PersistentInventory(count);
+
+        for (int i = 0; i < 2 * count; ++i) {
+            ItemStack stack = new ItemStack(new Item((i * 7) % count, "Item"), i % 5 + 1);
+
+            expected.addItems(stack.clone());
+            actual = actual.addItems(stack);
+        }
+
+        assertThat(actual.isFull(), is(true));
+        assertThat(actual.toString(), is(equalTo(expected.toString())));
+    }
+}
@@ -0,0 +1,88 @@
+package items;
+
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+
+/**
+ * 1 - Does this piece of code perform the operations
+ *     it was designed to perform?
+ *
+ * 2 - Does this piece of code do something it was not
+ *     designed to perform?
+ *
+ * Every line must match what String.format produced.
+ */
+@SuppressWarnings({
+    "PMD.AtLeastOneConstructor",
+    "PMD.BeanMembersShouldSerialize",
+    "PMD.JUnitAssertionsShouldIncludeMessage",
+    "PMD.JUnitTestContainsTooManyAsserts",
+    "PMD.LocalVariableCouldBeFinal",
+    "PMD.MethodArgumentCouldBeFinal",
+    "PMD.LawOfDemeter"
+})
+@TestMethodOrder(MethodOrderer.MethodName.class)
+public class TestReportRenderer
+{
+    private static final int[] VALUES = {
+        0, 1, 9, 10, 99, 100, 12345, -1, -9, -10, -100, Integer.MAX_VALUE, Integer.MIN_VALUE
+    };
+
+    @Test
+    public void testAppendPadded()
+    {
+        for (int value : VALUES) {
+            for (int width = 0; width < 13; ++width) {
+                StringBuilder actual = ReportRenderer.appendPadded(new StringBuilder(), value, width);
+                String expected = width == 0
+                    ? Integer.toString(value)
+                    : String.format("%" + width + "d", value);
+
+                assertThat(actual.toString(), is(equalTo(expected)));
+            }
+        }
+    }
+
+    @Test
+    public void testLines()
+    {
+        for (int value : VALUES) {
+            assertThat(
+                ReportRenderer.appendItemStack(new StringBuilder(), value, "Tomato").toString(),
+                is(equalTo(String.format("(%2d) %s", value, "Tomato")))
+            );
+            assertThat(
+                ReportRenderer.appendItemLine(new StringBuilder(), value, "\u00C9p\u00E9e").toString(),
+                is(equalTo(String.format("  %2d %s%n", value, "\u00C9p\u00E9e")))
+            );
+            assertThat(
+                ReportRenderer.appendSummaryLine(new StringBuilder(), value, 10).toString(),
+                is(equalTo(String.format(" -Used %d of %d slots%n", value, 10)))
+            );
+        }
+    }
+
+    @Test
+    public void testAppendInventory()
+    {
+        Inventory inv = new Inventory(3);
+        inv.addItems(new ItemStack(new Item(0, "Air"), 5));
+        inv.addItems(new ItemStack(new Item(4, "Dirt"), 64));
+
+        StringBuilder expected = new StringBuilder();
+        expected.append(String.format(" -Used %d of %d slots%n", 2, 3));
+        expected.append(String.format("  %s%n", "( 5) Air"));
+        expected.append(String.format("  %s%n", "(64) Dirt"));
+
+        StringBuilder report = new StringBuilder("Storage Summary:");
+        ReportRenderer.appendInventory(report, inv);
+
+        assertThat(report.toString(), is(equalTo("Storage Summary:" + expected)));
+        assertThat(inv.toString(), is(equalTo(expected.toString())));
+    }
+}